@@ -0,0 +1,102 @@
+package com.skishop.inventory.benchmark;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.entity.jpa.Price;
+import com.skishop.inventory.entity.mongo.Category;
+import com.skishop.inventory.entity.mongo.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Deterministic sample entities shared by the benchmarks
+ */
+final class BenchmarkData {
+
+    static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private BenchmarkData() {
+    }
+
+    static Category category(int index) {
+        return Category.builder()
+            .id("C" + index)
+            .name("Category " + index)
+            .description("Ski equipment category " + index)
+            .parentId(index == 0 ? null : "C0")
+            .level(index == 0 ? 0 : 1)
+            .path(index == 0 ? "/c0" : "/c0/c" + index)
+            .active(true)
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT)
+            .build();
+    }
+
+    static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            categories.add(category(i));
+        }
+        return categories;
+    }
+
+    static Product product(int index, int categoryCount) {
+        return Product.builder()
+            .id("P" + index)
+            .sku("SKU-" + index)
+            .name("Alpine Ski " + index)
+            .description("All-mountain ski with a wood core, model " + index)
+            .brand("Brand " + (index % 20))
+            .attributes(Map.of("length", 150 + index % 40, "color", "blue", "level", "intermediate"))
+            .tags(List.of("ski", "alpine", "season-" + (index % 4)))
+            .categoryId("C" + (index % categoryCount))
+            .active(true)
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT)
+            .build();
+    }
+
+    static List<Product> products(int count, int categoryCount) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i, categoryCount));
+        }
+        return products;
+    }
+
+    /**
+     * Price of a product; every other product has a sale that is currently running
+     */
+    static Price price(String productId, int index) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean onSale = index % 2 == 0;
+        return Price.builder()
+            .id(UUID.nameUUIDFromBytes(productId.getBytes()))
+            .productId(productId)
+            .regularPrice(BigDecimal.valueOf(50_000 + index))
+            .salePrice(onSale ? BigDecimal.valueOf(40_000 + index) : null)
+            .saleStartDate(onSale ? now.minusDays(1) : null)
+            .saleEndDate(onSale ? now.plusDays(30) : null)
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT)
+            .build();
+    }
+
+    static Inventory inventory(String productId, int index) {
+        int quantity = index % 10 == 0 ? 0 : 20 + index % 50;
+        return Inventory.builder()
+            .id(UUID.nameUUIDFromBytes(("inv-" + productId).getBytes()))
+            .productId(productId)
+            .quantity(quantity)
+            .reservedQuantity(Math.min(quantity, index % 3))
+            .locationCode("MAIN")
+            .status(Inventory.InventoryStatus.fromQuantity(quantity - Math.min(quantity, index % 3), 5))
+            .createdAt(CREATED_AT)
+            .updatedAt(CREATED_AT)
+            .build();
+    }
+}
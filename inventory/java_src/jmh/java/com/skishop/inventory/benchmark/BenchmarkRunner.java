@@ -0,0 +1,44 @@
+package com.skishop.inventory.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks and writes the results as JMH JSON, one file per run
+ *
+ * <p>Arguments: [include regex] [output directory]. Defaults run every benchmark in this package
+ * and write to {@code target/jmh}; compare runs by diffing the JSON files (or loading them into
+ * a JMH visualizer).</p>
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*";
+        Path outputDirectory = Path.of(args.length > 1 ? args[1] : "target/jmh");
+        Files.createDirectories(outputDirectory);
+        Path result = outputDirectory.resolve("results-" + RUN_ID.format(LocalDateTime.now()) + ".json");
+
+        Options options = new OptionsBuilder()
+            .include(include)
+            .resultFormat(ResultFormatType.JSON)
+            .result(result.toString())
+            .shouldFailOnError(true)
+            .build();
+        new Runner(options).run();
+        System.out.println("Benchmark results written to " + result.toAbsolutePath());
+    }
+}
@@ -0,0 +1,77 @@
+package com.skishop.inventory.benchmark;
+
+import com.skishop.inventory.cache.CachedValue;
+import com.skishop.inventory.config.CacheConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis cache values: JSON versus the compact binary format, with and without LZ4
+ *
+ * <p>The stored size of the value is printed when each trial starts.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "compact", "compact-lz4"})
+    public String format;
+
+    /**
+     * One enriched product, or a page of 20 as cached by the category listing
+     */
+    @Param({"product", "page"})
+    public String value;
+
+    private Object cachedValue;
+    private RedisSerializer<Object> serializer;
+    private byte[] stored;
+
+    @Setup
+    public void setUp() {
+        ProductServiceFixture fixture = new ProductServiceFixture(100, 4);
+        Object result = switch (value) {
+            case "product" -> fixture.productService.findById(fixture.products.get(0).getId());
+            case "page" -> fixture.productService.findByCategory(
+                fixture.products.get(0).getCategoryId(), PageRequest.of(0, 20));
+            default -> throw new IllegalArgumentException(value);
+        };
+        // The two-tier cache stores values with their compute time and expiry
+        cachedValue = new CachedValue(result, 12, System.currentTimeMillis() + 300_000);
+        serializer = switch (format) {
+            case "json" -> CacheConfig.cacheValueSerializer("json", 0);
+            case "compact" -> CacheConfig.cacheValueSerializer("compact", 0);
+            case "compact-lz4" -> CacheConfig.cacheValueSerializer("compact", 256);
+            default -> throw new IllegalArgumentException(format);
+        };
+        stored = serializer.serialize(cachedValue);
+        System.out.printf("Stored size (%s, %s): %d bytes%n", format, value, stored.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(cachedValue);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(stored);
+    }
+}
@@ -0,0 +1,64 @@
+package com.skishop.inventory.benchmark;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+
+/**
+ * Result of a contention simulation (written as JSON)
+ *
+ * @param workload Workload that was run
+ * @param reservationMode Reservation mode of the service
+ * @param elapsedSeconds Measured wall-clock time
+ * @param throughput Operations per second by outcome
+ * @param latency Latency per operation type
+ * @param lockWait Time spent waiting for locks and connections
+ * @param violations Invariant violations (empty when the run was correct)
+ */
+record ContentionReport(
+    ContentionWorkload workload,
+    String reservationMode,
+    double elapsedSeconds,
+    Throughput throughput,
+    List<Latency> latency,
+    LockWait lockWait,
+    List<String> violations
+) {
+
+    /**
+     * @param reservations Successful reservations per second
+     * @param rejected Reservations rejected for insufficient stock per second
+     * @param releases Releases per second
+     * @param stockOuts Stock outs per second
+     * @param errors Unexpected failures (total count)
+     */
+    record Throughput(double reservations, double rejected, double releases, double stockOuts, long errors) {}
+
+    /**
+     * Latency percentiles in microseconds
+     */
+    record Latency(String operation, long count, double p50, double p99, double p999, double max) {
+
+        static Latency of(String operation, Histogram histogram) {
+            return new Latency(
+                operation,
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0
+            );
+        }
+    }
+
+    /**
+     * @param postgresLockWaitMillis Backend time spent waiting on row or advisory locks (sampled from pg_stat_activity)
+     * @param connectionAcquireMillis Total time spent waiting for a pooled connection
+     * @param connectionAcquireMaxMillis Longest wait for a pooled connection
+     */
+    record LockWait(double postgresLockWaitMillis, double connectionAcquireMillis, double connectionAcquireMaxMillis) {}
+
+    boolean passed() {
+        return violations.isEmpty();
+    }
+}
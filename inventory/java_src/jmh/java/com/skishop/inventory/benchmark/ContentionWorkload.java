@@ -0,0 +1,53 @@
+package com.skishop.inventory.benchmark;
+
+import java.time.Duration;
+
+/**
+ * Reservation contention workload, read from {@code sim.*} system properties
+ *
+ * @param products Number of products (SKUs)
+ * @param initialStock Stock of every product at the start
+ * @param threads Concurrent clients
+ * @param duration How long the clients run
+ * @param zipfExponent Popularity skew (0 = uniform)
+ * @param quantity Units per reservation
+ * @param releaseRatio Share of successful reservations that are released again
+ * @param stockOutRatio Share of successful reservations that are shipped (stock out)
+ * @param outputDirectory Directory of the JSON report
+ */
+record ContentionWorkload(
+    int products,
+    int initialStock,
+    int threads,
+    Duration duration,
+    double zipfExponent,
+    int quantity,
+    double releaseRatio,
+    double stockOutRatio,
+    String outputDirectory
+) {
+
+    ContentionWorkload {
+        if (releaseRatio < 0 || stockOutRatio < 0 || releaseRatio + stockOutRatio > 1) {
+            throw new IllegalArgumentException("sim.release-ratio + sim.stock-out-ratio must be between 0 and 1");
+        }
+    }
+
+    static ContentionWorkload fromSystemProperties() {
+        return new ContentionWorkload(
+            Integer.getInteger("sim.products", 1000),
+            Integer.getInteger("sim.initial-stock", 100),
+            Integer.getInteger("sim.threads", 64),
+            Duration.ofSeconds(Integer.getInteger("sim.duration-seconds", 30)),
+            Double.parseDouble(System.getProperty("sim.zipf-exponent", "1.1")),
+            Integer.getInteger("sim.quantity", 1),
+            Double.parseDouble(System.getProperty("sim.release-ratio", "0.3")),
+            Double.parseDouble(System.getProperty("sim.stock-out-ratio", "0.5")),
+            System.getProperty("sim.output", "target/simulation")
+        );
+    }
+
+    String productId(int rank) {
+        return String.format("SIM-%06d", rank);
+    }
+}
@@ -0,0 +1,41 @@
+package com.skishop.inventory.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for Spring Data repositories
+ *
+ * <p>Only the methods given by name are answered; any other call fails, so a benchmark
+ * never silently measures an unexpected code path.</p>
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Create a repository whose methods are answered by name
+     */
+    static <T> T stub(Class<T> repositoryType, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] {repositoryType},
+            (self, method, args) -> {
+                switch (method.getName()) {
+                    case "toString":
+                        return "InMemory" + repositoryType.getSimpleName();
+                    case "hashCode":
+                        return System.identityHashCode(self);
+                    case "equals":
+                        return self == args[0];
+                    default:
+                        Function<Object[], Object> answer = answers.get(method.getName());
+                        if (answer == null) {
+                            throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName());
+                        }
+                        return answer.apply(args);
+                }
+            });
+        return repositoryType.cast(proxy);
+    }
+}
@@ -0,0 +1,52 @@
+package com.skishop.inventory.benchmark;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inventory status derivation over a mix of out-of-stock, low-stock and in-stock quantities
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryStatusBenchmark {
+
+    private static final int QUANTITIES = 1024;
+    private static final int LOW_STOCK_THRESHOLD = 5;
+
+    private int[] availableQuantities;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        availableQuantities = new int[QUANTITIES];
+        for (int i = 0; i < QUANTITIES; i++) {
+            availableQuantities[i] = random.nextInt(-2, 20);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUANTITIES)
+    public void fromQuantity(Blackhole blackhole) {
+        for (int availableQuantity : availableQuantities) {
+            blackhole.consume(Inventory.InventoryStatus.fromQuantity(availableQuantity, LOW_STOCK_THRESHOLD));
+        }
+    }
+}
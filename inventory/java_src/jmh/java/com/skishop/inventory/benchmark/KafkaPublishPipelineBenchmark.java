@@ -0,0 +1,100 @@
+package com.skishop.inventory.benchmark;
+
+import com.skishop.inventory.outbox.KafkaPublishPipeline;
+import com.skishop.inventory.service.EventPublisherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka publishing throughput: pipeline vs. direct KafkaTemplate sends
+ * (MockProducer stands in for the broker and acknowledges every record)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaPublishPipelineBenchmark {
+
+    private static final int EVENTS_PER_OPERATION = 1000;
+
+    @Param({"1000", "10000"})
+    private int queueCapacity;
+
+    private MockProducer<String, Object> producer;
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private KafkaPublishPipeline pipeline;
+    private Object[] events;
+
+    @Setup
+    public void setUp() {
+        // The template closes the producer after each send; the factory hands out this one every time
+        producer = new MockProducer<>(true, new StringSerializer(), new JsonSerializer<>()) {
+            @Override
+            public void close(Duration timeout) {
+            }
+        };
+        kafkaTemplate = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+        pipeline = new KafkaPublishPipeline(kafkaTemplate, new SimpleMeterRegistry(), queueCapacity,
+            KafkaPublishPipeline.BackpressurePolicy.BLOCK, 1000);
+        pipeline.start();
+
+        events = new Object[EVENTS_PER_OPERATION];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new EventPublisherService.StockReservedEvent("P" + (i % 100), 1);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        producer.clear();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_OPERATION)
+    public void pipeline() {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[events.length];
+        for (int i = 0; i < events.length; i++) {
+            sends[i] = pipeline.submit("inventory.stock.reserved", "P" + (i % 100), events[i]);
+        }
+        CompletableFuture.allOf(sends).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_OPERATION)
+    public void directSend() {
+        CompletableFuture<?>[] sends = new CompletableFuture<?>[events.length];
+        for (int i = 0; i < events.length; i++) {
+            sends[i] = kafkaTemplate.send("inventory.stock.reserved", "P" + (i % 100), events[i]);
+        }
+        CompletableFuture.allOf(sends).join();
+    }
+}
@@ -0,0 +1,65 @@
+package com.skishop.inventory.benchmark;
+
+import com.skishop.inventory.entity.mongo.Category;
+import com.skishop.inventory.entity.mongo.Product;
+import com.skishop.inventory.mapper.CategoryMapper;
+import com.skishop.inventory.mapper.ProductMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct entity to DTO mapping (generated implementations, no Spring context)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int ENTITIES = 100;
+
+    private ProductMapper productMapper;
+    private CategoryMapper categoryMapper;
+    private List<Product> products;
+    private List<Category> categories;
+
+    @Setup
+    public void setUp() {
+        productMapper = Mappers.getMapper(ProductMapper.class);
+        categoryMapper = Mappers.getMapper(CategoryMapper.class);
+        products = BenchmarkData.products(ENTITIES, 10);
+        categories = BenchmarkData.categories(ENTITIES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public void productToDTO(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(productMapper.toDTO(product));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITIES)
+    public void categoryToDTO(Blackhole blackhole) {
+        for (Category category : categories) {
+            blackhole.consume(categoryMapper.toDTO(category));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.skishop.inventory.benchmark;
+
+import com.skishop.inventory.entity.jpa.Price;
+import com.skishop.inventory.pricing.EffectivePrice;
+import com.skishop.inventory.pricing.PriceEngine;
+import com.skishop.inventory.repository.jpa.PriceRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Effective price and sale checks (half of the prices have a running sale):
+ * evaluated on the entity versus looked up in the price engine
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceBenchmark {
+
+    private static final int PRICES = 256;
+
+    private Price[] prices;
+    private String[] productIds;
+    private PriceEngine priceEngine;
+
+    @Setup
+    public void setUp() {
+        prices = new Price[PRICES];
+        for (int i = 0; i < PRICES; i++) {
+            prices[i] = BenchmarkData.price("P" + i, i);
+        }
+        productIds = Arrays.stream(prices).map(Price::getProductId).toArray(String[]::new);
+        priceEngine = new PriceEngine(InMemoryRepositories.stub(PriceRepository.class, Map.of(
+            "findByIsActiveTrue", args -> List.of(prices)
+        )), event -> {});
+        priceEngine.reload();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRICES)
+    public void getCurrentPrice(Blackhole blackhole) {
+        for (Price price : prices) {
+            blackhole.consume(price.getCurrentPrice());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRICES)
+    public void isOnSale(Blackhole blackhole) {
+        for (Price price : prices) {
+            blackhole.consume(price.isOnSale());
+        }
+    }
+
+    /**
+     * Current price and on-sale flag from the precomputed table
+     */
+    @Benchmark
+    @OperationsPerInvocation(PRICES)
+    public void engineLookup(Blackhole blackhole) {
+        for (String productId : productIds) {
+            EffectivePrice price = priceEngine.find(productId);
+            blackhole.consume(price.currentMinorUnits());
+            blackhole.consume(price.onSale());
+        }
+    }
+}
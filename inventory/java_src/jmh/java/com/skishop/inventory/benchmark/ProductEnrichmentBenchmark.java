@@ -0,0 +1,59 @@
+package com.skishop.inventory.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product enrichment (category, price and inventory lookups plus DTO assembly) with in-memory repositories
+ *
+ * <p>Measures the CPU cost of enrichment only; database round trips are not part of the numbers.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductEnrichmentBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ProductServiceFixture fixture;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        fixture = new ProductServiceFixture(1000, 10);
+    }
+
+    /**
+     * Single product (enrichProductWithDetails through findById)
+     */
+    @Benchmark
+    public void enrichSingle(Blackhole blackhole) {
+        String productId = fixture.products.get(next++ % fixture.products.size()).getId();
+        blackhole.consume(fixture.productService.findById(productId));
+    }
+
+    /**
+     * One page of a category (batch enrichment)
+     */
+    @Benchmark
+    public void enrichPage(Blackhole blackhole) {
+        blackhole.consume(fixture.productService.findByCategory("C" + (next++ % 10), PageRequest.of(0, pageSize)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.skishop.inventory.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.entity.jpa.Price;
+import com.skishop.inventory.entity.mongo.Category;
+import com.skishop.inventory.entity.mongo.Product;
+import com.skishop.inventory.ledger.ReservationLedger;
+import com.skishop.inventory.mapper.CategoryMapper;
+import com.skishop.inventory.mapper.ProductMapper;
+import com.skishop.inventory.pricing.PriceEngine;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+import com.skishop.inventory.repository.jpa.PriceRepository;
+import com.skishop.inventory.repository.mongo.CategoryRepository;
+import com.skishop.inventory.repository.mongo.ProductRepository;
+import com.skishop.inventory.service.CategoryService;
+import com.skishop.inventory.service.ProductService;
+import org.mapstruct.factory.Mappers;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ProductService wired to in-memory repositories (no Spring context, caches or databases)
+ *
+ * <p>Only the lookups used by product enrichment are answered; other collaborators are left null.</p>
+ */
+final class ProductServiceFixture {
+
+    final List<Product> products;
+    final ProductService productService;
+    final PriceEngine priceEngine;
+    final ObjectMapper objectMapper;
+
+    ProductServiceFixture(int productCount, int categoryCount) {
+        products = BenchmarkData.products(productCount, categoryCount);
+        List<Category> categories = BenchmarkData.categories(categoryCount);
+        Map<String, Product> productsById = index(products, Product::getId);
+        Map<String, Price> pricesByProductId = new HashMap<>();
+        Map<String, Inventory> inventoriesByProductId = new HashMap<>();
+        for (int i = 0; i < products.size(); i++) {
+            String productId = products.get(i).getId();
+            pricesByProductId.put(productId, BenchmarkData.price(productId, i));
+            inventoriesByProductId.put(productId, BenchmarkData.inventory(productId, i));
+        }
+        Map<String, List<Product>> productsByCategoryId = products.stream()
+            .collect(Collectors.groupingBy(Product::getCategoryId));
+
+        ProductRepository productRepository = InMemoryRepositories.stub(ProductRepository.class, Map.of(
+            "findById", args -> Optional.ofNullable(productsById.get((String) args[0])),
+            "findByCategoryIdAndActiveTrue", args -> page(productsByCategoryId.getOrDefault((String) args[0], List.of()), (Pageable) args[1])
+        ));
+        PriceRepository priceRepository = InMemoryRepositories.stub(PriceRepository.class, Map.of(
+            "findByProductIdInAndIsActiveTrue", args -> lookup(pricesByProductId, (Collection<?>) args[0]),
+            "findByIsActiveTrue", args -> List.copyOf(pricesByProductId.values())
+        ));
+        priceEngine = new PriceEngine(priceRepository, event -> {});
+        priceEngine.reload();
+        InventoryRepository inventoryRepository = InMemoryRepositories.stub(InventoryRepository.class, Map.of(
+            "findByProductIdIn", args -> lookup(inventoriesByProductId, (Collection<?>) args[0])
+        ));
+        CategoryRepository categoryRepository = InMemoryRepositories.stub(CategoryRepository.class, Map.of(
+            "findByActiveTrueOrderByPathAsc", args -> categories,
+            "findAllById", args -> List.of()
+        ));
+
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        CategoryService categoryService = new CategoryService(categoryRepository, Mappers.getMapper(CategoryMapper.class), null);
+        productService = new ProductService(
+            productRepository,
+            inventoryRepository,
+            new ReservationLedger(null, null, null, null, false, "default", Set.of(), "target/ledger", false),
+            priceRepository,
+            priceEngine,
+            null,
+            Mappers.getMapper(ProductMapper.class),
+            categoryService,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            objectMapper
+        );
+    }
+
+    private static <T> Map<String, T> index(List<T> values, Function<T, String> key) {
+        return values.stream().collect(Collectors.toMap(key, Function.identity()));
+    }
+
+    private static <T> List<T> lookup(Map<String, T> values, Collection<?> keys) {
+        return keys.stream()
+            .map(values::get)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private static Page<Product> page(List<Product> products, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), products.size());
+        int to = Math.min(from + pageable.getPageSize(), products.size());
+        return new PageImpl<>(products.subList(from, to), pageable, products.size());
+    }
+}
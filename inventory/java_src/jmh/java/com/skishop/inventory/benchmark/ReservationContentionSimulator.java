@@ -0,0 +1,356 @@
+package com.skishop.inventory.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skishop.inventory.InventoryManagementServiceApplication;
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.exception.InsufficientStockException;
+import com.skishop.inventory.ledger.ReservationLedger;
+import com.skishop.inventory.repository.jdbc.CatalogBulkRepository;
+import com.skishop.inventory.service.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Flash-sale simulation of reserveStock / releaseStock / stockOut against a locally booted service
+ *
+ * <p>Boots the application in-process against a PostgreSQL container, a MongoDB container, a Redis
+ * container and an embedded Kafka broker, seeds inventory, and drives concurrent clients with
+ * Zipf-skewed product popularity. Reports throughput, latency percentiles and lock-wait time, and
+ * checks that no product was oversold, that reserved quantities never went negative, and that the
+ * final quantities match what the clients were told succeeded. Oversold and negative rows are looked
+ * for in the inventory table while the clients run as well as at the end; the final rows are read
+ * with JDBC, not through the service and its caches.</p>
+ *
+ * <p>The workload is configured with {@code sim.*} system properties (see {@link ContentionWorkload});
+ * service settings such as {@code app.inventory.reservation.mode} can be overridden the same way.
+ * Exits with status 1 when an invariant is violated.</p>
+ */
+public final class ReservationContentionSimulator {
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final long LOCK_SAMPLE_INTERVAL_MS = 5;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final String INVALID_ROWS_SQL =
+        "SELECT product_id, quantity, reserved_quantity FROM inventory WHERE reserved_quantity > quantity OR reserved_quantity < 0";
+
+    private final ContentionWorkload workload;
+    private final InventoryService inventoryService;
+
+    // Per product counts of operations that the service reported as successful
+    private final AtomicIntegerArray reserved;
+    private final AtomicIntegerArray released;
+    private final AtomicIntegerArray shipped;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final List<String> errorMessages = new ArrayList<>();
+    // Distinct invalid rows seen while the clients ran
+    private final Set<String> invalidRows = ConcurrentHashMap.newKeySet();
+
+    private ReservationContentionSimulator(ContentionWorkload workload, InventoryService inventoryService) {
+        this.workload = workload;
+        this.inventoryService = inventoryService;
+        this.reserved = new AtomicIntegerArray(workload.products());
+        this.released = new AtomicIntegerArray(workload.products());
+        this.shipped = new AtomicIntegerArray(workload.products());
+    }
+
+    public static void main(String[] args) throws Exception {
+        ContentionWorkload workload = ContentionWorkload.fromSystemProperties();
+        ContentionReport report;
+
+        try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+             MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:7"));
+             GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379)) {
+            postgres.start();
+            mongo.start();
+            redis.start();
+            EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 1);
+            kafka.afterPropertiesSet();
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryManagementServiceApplication.class)
+                    .properties(Map.of(
+                        "server.port", "0",
+                        "spring.datasource.url", postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                        "spring.datasource.username", postgres.getUsername(),
+                        "spring.datasource.password", postgres.getPassword(),
+                        "spring.data.mongodb.host", mongo.getHost(),
+                        "spring.data.mongodb.port", String.valueOf(mongo.getFirstMappedPort()),
+                        "spring.data.redis.host", redis.getHost(),
+                        "spring.data.redis.port", String.valueOf(redis.getFirstMappedPort()),
+                        "spring.kafka.bootstrap-servers", kafka.getBrokersAsString(),
+                        // Holds must not expire while the clients run, or the final counts would not add up
+                        "app.inventory.reservation.hold.ttl-seconds", "86400"))
+                    .run()) {
+                seed(context, workload);
+                ReservationContentionSimulator simulator =
+                    new ReservationContentionSimulator(workload, context.getBean(InventoryService.class));
+                report = simulator.run(context, postgres);
+            } finally {
+                kafka.destroy();
+            }
+        }
+
+        Path output = writeReport(report, workload);
+        System.out.printf("%s: %.0f reservations/s, %.0f rejected/s, reserve p99 %.0f us, violations %d%n",
+            report.passed() ? "PASSED" : "FAILED",
+            report.throughput().reservations(),
+            report.throughput().rejected(),
+            report.latency().get(0).p99(),
+            report.violations().size());
+        report.violations().forEach(violation -> System.out.println("  " + violation));
+        System.out.println("Report written to " + output.toAbsolutePath());
+        System.exit(report.passed() ? 0 : 1);
+    }
+
+    private static void seed(ConfigurableApplicationContext context, ContentionWorkload workload) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Inventory> inventories = IntStream.range(0, workload.products())
+            .mapToObj(rank -> Inventory.builder()
+                .id(UUID.randomUUID())
+                .productId(workload.productId(rank))
+                .quantity(workload.initialStock())
+                .reservedQuantity(0)
+                .locationCode("MAIN")
+                .status(Inventory.InventoryStatus.IN_STOCK)
+                .createdAt(now)
+                .updatedAt(now)
+                .build())
+            .toList();
+        context.getBean(CatalogBulkRepository.class).insertInventories(inventories);
+        // The ledger loads its products at startup, before they were seeded
+        context.getBeanProvider(ReservationLedger.class).ifAvailable(ReservationLedger::recover);
+    }
+
+    private ContentionReport run(ConfigurableApplicationContext context, PostgreSQLContainer<?> postgres) throws Exception {
+        ZipfSampler sampler = new ZipfSampler(workload.products(), workload.zipfExponent());
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong lockWaitSamples = new AtomicLong();
+        Timer connectionAcquire = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+        double acquireBefore = connectionAcquire == null ? 0 : connectionAcquire.totalTime(TimeUnit.MILLISECONDS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(workload.threads() + 1);
+        Future<?> databaseSampler = clients.submit(() -> sample(postgres, running, lockWaitSamples));
+        List<Future<Histogram[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + workload.duration().toNanos();
+        for (int i = 0; i < workload.threads(); i++) {
+            results.add(clients.submit(() -> client(sampler, deadline)));
+        }
+
+        Histogram reserveLatency = new Histogram(3);
+        Histogram releaseLatency = new Histogram(3);
+        Histogram stockOutLatency = new Histogram(3);
+        for (Future<Histogram[]> result : results) {
+            Histogram[] histograms = result.get();
+            reserveLatency.add(histograms[0]);
+            releaseLatency.add(histograms[1]);
+            stockOutLatency.add(histograms[2]);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        databaseSampler.get();
+        clients.shutdown();
+
+        double acquireMillis = connectionAcquire == null ? 0 : connectionAcquire.totalTime(TimeUnit.MILLISECONDS) - acquireBefore;
+        double acquireMaxMillis = connectionAcquire == null ? 0 : connectionAcquire.max(TimeUnit.MILLISECONDS);
+        List<String> violations = verify(context, postgres);
+        invalidRows.stream().sorted().limit(MAX_REPORTED_ERRORS)
+            .forEach(row -> violations.add("Invalid row during the run: " + row));
+        synchronized (errorMessages) {
+            errorMessages.forEach(message -> violations.add("Unexpected failure: " + message));
+        }
+
+        return new ContentionReport(
+            workload,
+            inventoryService.getReservationMode().name(),
+            elapsedSeconds,
+            new ContentionReport.Throughput(
+                reserveLatency.getTotalCount() / elapsedSeconds,
+                rejected.get() / elapsedSeconds,
+                releaseLatency.getTotalCount() / elapsedSeconds,
+                stockOutLatency.getTotalCount() / elapsedSeconds,
+                errors.get()),
+            List.of(
+                ContentionReport.Latency.of("reserve", reserveLatency),
+                ContentionReport.Latency.of("release", releaseLatency),
+                ContentionReport.Latency.of("stockOut", stockOutLatency)),
+            new ContentionReport.LockWait(lockWaitSamples.get() * (double) LOCK_SAMPLE_INTERVAL_MS, acquireMillis, acquireMaxMillis),
+            violations
+        );
+    }
+
+    /**
+     * One client: reserve, then release, ship or keep the reservation
+     *
+     * @return Latency histograms (nanoseconds) of successful reserve, release and stock out calls
+     */
+    private Histogram[] client(ZipfSampler sampler, long deadline) {
+        Histogram reserveLatency = new Histogram(3);
+        Histogram releaseLatency = new Histogram(3);
+        Histogram stockOutLatency = new Histogram(3);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int quantity = workload.quantity();
+
+        while (System.nanoTime() < deadline) {
+            int rank = sampler.next();
+            String productId = workload.productId(rank);
+            String orderId = UUID.randomUUID().toString();
+            try {
+                long begin = System.nanoTime();
+                switch (inventoryService.getReservationMode()) {
+                    case GROUP_COMMIT -> inventoryService.reserveStockGrouped(productId, quantity, orderId, null);
+                    default -> inventoryService.reserveStock(productId, quantity, orderId, null);
+                }
+                reserveLatency.recordValue(System.nanoTime() - begin);
+                reserved.addAndGet(rank, quantity);
+
+                double next = random.nextDouble();
+                if (next < workload.releaseRatio()) {
+                    begin = System.nanoTime();
+                    inventoryService.releaseStock(productId, quantity, orderId);
+                    releaseLatency.recordValue(System.nanoTime() - begin);
+                    released.addAndGet(rank, quantity);
+                } else if (next < workload.releaseRatio() + workload.stockOutRatio()) {
+                    begin = System.nanoTime();
+                    inventoryService.stockOut(productId, quantity, orderId);
+                    stockOutLatency.recordValue(System.nanoTime() - begin);
+                    shipped.addAndGet(rank, quantity);
+                }
+            } catch (InsufficientStockException e) {
+                rejected.incrementAndGet();
+            } catch (RuntimeException e) {
+                errors.incrementAndGet();
+                synchronized (errorMessages) {
+                    if (errorMessages.size() < MAX_REPORTED_ERRORS) {
+                        errorMessages.add(productId + ": " + e);
+                    }
+                }
+            }
+        }
+        return new Histogram[] {reserveLatency, releaseLatency, stockOutLatency};
+    }
+
+    /**
+     * At a fixed interval, count backends waiting on a lock (each waiting backend adds one interval)
+     * and record oversold or negative inventory rows
+     */
+    private void sample(PostgreSQLContainer<?> postgres, AtomicBoolean running, AtomicLong samples) {
+        try (Connection connection = connect(postgres);
+             Statement statement = connection.createStatement()) {
+            while (running.get()) {
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT count(*) FROM pg_stat_activity WHERE datname = current_database() AND wait_event_type = 'Lock'")) {
+                    rs.next();
+                    samples.addAndGet(rs.getLong(1));
+                }
+                try (ResultSet rs = statement.executeQuery(INVALID_ROWS_SQL)) {
+                    while (rs.next()) {
+                        invalidRows.add(rs.getString("product_id") + " (quantity " + rs.getInt("quantity")
+                            + ", reserved " + rs.getInt("reserved_quantity") + ")");
+                    }
+                }
+                Thread.sleep(LOCK_SAMPLE_INTERVAL_MS);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Sampling failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Check the final inventory rows of every product against the operations that succeeded
+     * (read with JDBC once the ledger has flushed)
+     */
+    private List<String> verify(ConfigurableApplicationContext context, PostgreSQLContainer<?> postgres) throws SQLException {
+        context.getBeanProvider(ReservationLedger.class).ifAvailable(ReservationLedger::flush);
+        Map<String, int[]> rows = new HashMap<>();
+        try (Connection connection = connect(postgres);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT product_id, quantity, reserved_quantity FROM inventory")) {
+            while (rs.next()) {
+                rows.put(rs.getString("product_id"), new int[] {rs.getInt("quantity"), rs.getInt("reserved_quantity")});
+            }
+        }
+
+        List<String> violations = new ArrayList<>();
+        for (int rank = 0; rank < workload.products(); rank++) {
+            String productId = workload.productId(rank);
+            int[] row = rows.get(productId);
+            if (row == null) {
+                violations.add(productId + ": inventory row missing");
+                continue;
+            }
+            int quantity = row[0];
+            int reservedQuantity = row[1];
+            int expectedQuantity = workload.initialStock() - shipped.get(rank);
+            int expectedReserved = reserved.get(rank) - released.get(rank) - shipped.get(rank);
+
+            if (reservedQuantity < 0) {
+                violations.add(productId + ": negative reservedQuantity " + reservedQuantity);
+            }
+            if (reservedQuantity > quantity) {
+                violations.add(productId + ": oversold (reserved " + reservedQuantity + " > quantity " + quantity + ")");
+            }
+            if (quantity != expectedQuantity) {
+                violations.add(productId + ": quantity " + quantity + ", expected " + expectedQuantity);
+            }
+            if (reservedQuantity != expectedReserved) {
+                violations.add(productId + ": reservedQuantity " + reservedQuantity + ", expected " + expectedReserved);
+            }
+        }
+        return violations;
+    }
+
+    private static Connection connect(PostgreSQLContainer<?> postgres) throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    private static Path writeReport(ContentionReport report, ContentionWorkload workload) throws IOException {
+        Path directory = Path.of(workload.outputDirectory());
+        Files.createDirectories(directory);
+        Path output = directory.resolve("contention-" + RUN_ID.format(LocalDateTime.now()) + ".json");
+        new ObjectMapper()
+            .findAndRegisterModules()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(output.toFile(), report);
+        return output;
+    }
+}
@@ -0,0 +1,65 @@
+package com.skishop.inventory.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.skishop.inventory.config.CacheConfig;
+import com.skishop.inventory.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductDTO serialization: HTTP JSON and the Redis cache value serializer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ProductServiceFixture fixture;
+    private ProductDTO product;
+    private String productJson;
+    private RedisSerializer<Object> cacheSerializer;
+    private byte[] cachedProduct;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        fixture = new ProductServiceFixture(10, 2);
+        product = fixture.productService.findById(fixture.products.get(0).getId());
+        productJson = fixture.objectMapper.writeValueAsString(product);
+        cacheSerializer = CacheConfig.jsonCacheValueSerializer();
+        cachedProduct = cacheSerializer.serialize(product);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() throws JsonProcessingException {
+        return fixture.objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public ProductDTO jsonRead() throws JsonProcessingException {
+        return fixture.objectMapper.readValue(productJson, ProductDTO.class);
+    }
+
+    @Benchmark
+    public byte[] cacheSerialize() {
+        return cacheSerializer.serialize(product);
+    }
+
+    @Benchmark
+    public Object cacheDeserialize() {
+        return cacheSerializer.deserialize(cachedProduct);
+    }
+}
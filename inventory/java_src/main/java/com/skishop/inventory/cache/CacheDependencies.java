@@ -0,0 +1,85 @@
+package com.skishop.inventory.cache;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Records what a cached value is built from while it is loaded
+ *
+ * <p>Code that assembles a cached value reports its sources as tags (products, categories,
+ * prices, inventory); the cache stores the tags in a reverse index so that a mutation of a
+ * source evicts exactly the entries built from it. Loads nested in a load report to both.</p>
+ */
+public final class CacheDependencies {
+
+    /**
+     * Tag of listings over all products (changes when a product is added)
+     */
+    public static final String CATALOG = "catalog";
+
+    private static final ThreadLocal<Deque<Set<String>>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private CacheDependencies() {
+    }
+
+    public static String product(String productId) {
+        return "product:" + productId;
+    }
+
+    public static String price(String productId) {
+        return "price:" + productId;
+    }
+
+    public static String inventory(String productId) {
+        return "inventory:" + productId;
+    }
+
+    /**
+     * Tag of a category (its details, and listings of its products)
+     */
+    public static String category(String categoryId) {
+        return "category:" + categoryId;
+    }
+
+    /**
+     * Report a source of the value being loaded on this thread (ignored outside a load)
+     */
+    public static void record(String tag) {
+        Set<String> tags = SCOPES.get().peek();
+        if (tags != null) {
+            tags.add(tag);
+        }
+    }
+
+    /**
+     * Report sources of the value being loaded on this thread (ignored outside a load)
+     */
+    public static void record(Collection<String> tags) {
+        Set<String> current = SCOPES.get().peek();
+        if (current != null) {
+            current.addAll(tags);
+        }
+    }
+
+    /**
+     * Run a loader, collecting the tags it reports into the given set
+     */
+    static <T> T track(Callable<T> loader, Set<String> tags) throws Exception {
+        Deque<Set<String>> scopes = SCOPES.get();
+        scopes.push(tags);
+        try {
+            return loader.call();
+        } finally {
+            scopes.pop();
+            Set<String> parent = scopes.peek();
+            if (parent != null) {
+                parent.addAll(tags);
+            } else {
+                SCOPES.remove();
+            }
+        }
+    }
+}
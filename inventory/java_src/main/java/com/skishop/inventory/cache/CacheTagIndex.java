@@ -0,0 +1,129 @@
+package com.skishop.inventory.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from dependency tags to the cache entries built from them, kept in Redis
+ * so that every node sees the entries of every other node
+ *
+ * <p>Each tag is a Redis set of "cache name + key" members. Sets expire with the cache TTL and
+ * are renewed whenever an entry is added, so they never outlive the entries they point to by
+ * more than one TTL.</p>
+ *
+ * <p>Taking a tag also stamps it with the next value of a global eviction sequence. A loader reads
+ * the sequence before loading and checks the stamps of its tags after registering, so an eviction
+ * that ran while the value was loaded (and found no entry to evict yet) is not lost.</p>
+ */
+@Slf4j
+public class CacheTagIndex {
+
+    private static final String KEY_PREFIX = "inventory:cache:tag:";
+    private static final String EVICTED_PREFIX = "inventory:cache:tag-evicted:";
+    private static final String SEQUENCE_KEY = "inventory:cache:tag-sequence";
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Stamp a tag with the next eviction sequence, then read and delete its set in one step
+     * (entries registered afterwards land in a new set and see the stamp)
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>(
+        "local sequence = redis.call('incr', KEYS[2]); " +
+        "redis.call('set', KEYS[3], sequence, 'EX', ARGV[1]); " +
+        "local members = redis.call('smembers', KEYS[1]); redis.call('del', KEYS[1]); return members",
+        List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public CacheTagIndex(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Current eviction sequence (read before loading a value)
+     */
+    public long sequence() {
+        try {
+            String sequence = redisTemplate.opsForValue().get(SEQUENCE_KEY);
+            return sequence == null ? 0 : Long.parseLong(sequence);
+        } catch (RuntimeException e) {
+            // Every recorded eviction then counts as concurrent with the load
+            log.warn("Failed to read cache eviction sequence", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Register an entry under its tags and check whether one of them was taken since the sequence
+     * (one pipelined round trip)
+     *
+     * @param sequence Eviction sequence read before the entry was loaded
+     * @return true if the entry may be stale and must be evicted
+     */
+    public boolean register(String cacheName, String key, Set<String> tags, Duration ttl, long sequence) {
+        String member = cacheName + SEPARATOR + key;
+        List<String> tagList = List.copyOf(tags);
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String tag : tagList) {
+                    stringConnection.sAdd(KEY_PREFIX + tag, member);
+                    stringConnection.expire(KEY_PREFIX + tag, ttl.toSeconds());
+                }
+                stringConnection.mGet(tagList.stream().map(tag -> EVICTED_PREFIX + tag).toArray(String[]::new));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to register cache dependencies - Cache: {}, Key: {}", cacheName, key, e);
+            return true;
+        }
+        if (results.isEmpty() || !(results.get(results.size() - 1) instanceof List<?> stamps)) {
+            return true;
+        }
+        return stamps.stream().anyMatch(stamp -> stamp != null && Long.parseLong(String.valueOf(stamp)) > sequence);
+    }
+
+    /**
+     * Remove tags and return the entries registered under them
+     *
+     * @param ttl Cache TTL (how long the eviction stamp of a tag is kept)
+     * @return Keys per cache name
+     */
+    public Map<String, Set<String>> take(Collection<String> tags, Duration ttl) {
+        Map<String, Set<String>> entries = new HashMap<>();
+        for (String tag : tags) {
+            List<?> members;
+            try {
+                members = redisTemplate.execute(TAKE_SCRIPT,
+                    List.of(KEY_PREFIX + tag, SEQUENCE_KEY, EVICTED_PREFIX + tag), String.valueOf(ttl.toSeconds()));
+            } catch (RuntimeException e) {
+                log.warn("Failed to read cache dependencies - Tag: {}", tag, e);
+                continue;
+            }
+            if (members == null) {
+                continue;
+            }
+            for (Object member : members) {
+                String[] parts = String.valueOf(member).split(SEPARATOR, 2);
+                if (parts.length == 2) {
+                    entries.computeIfAbsent(parts[0], name -> new HashSet<>()).add(parts[1]);
+                }
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,28 @@
+package com.skishop.inventory.cache;
+
+import org.springframework.data.domain.Page;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Weighs local cache values by the number of elements they hold
+ */
+final class CacheValueWeigher {
+
+    private CacheValueWeigher() {
+    }
+
+    static int weigh(Object value) {
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements() + 1;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size() + 1;
+        }
+        return 1;
+    }
+}
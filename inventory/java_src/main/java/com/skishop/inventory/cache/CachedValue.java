@@ -0,0 +1,10 @@
+package com.skishop.inventory.cache;
+
+/**
+ * Value stored in both cache tiers, with what early refresh needs to know about it
+ *
+ * @param value Cached value (null values are cached as well)
+ * @param computeMillis Time it took to compute the value (0 when it was put directly)
+ * @param expiresAt Epoch millis at which the Redis entry expires
+ */
+public record CachedValue(Object value, long computeMillis, long expiresAt) {}
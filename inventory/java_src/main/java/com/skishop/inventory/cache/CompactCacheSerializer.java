@@ -0,0 +1,474 @@
+package com.skishop.inventory.cache;
+
+import com.skishop.inventory.dto.CategoryDTO;
+import com.skishop.inventory.dto.ProductDTO;
+import com.skishop.inventory.dto.ProductImageDTO;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary serializer for Redis cache values
+ *
+ * <p>Layout: a marker byte, the format version, a flags byte, then the tagged value (LZ4-compressed
+ * and prefixed with its length when it exceeds the compression threshold). Cache records, pages and
+ * common scalars have their own tags; any other value is embedded as JSON written by the fallback
+ * serializer. Values without the marker are read with the fallback serializer (entries written in
+ * JSON), and values of an unknown format version read as cache misses, so nodes on different
+ * versions can share the cache during a rolling deploy.</p>
+ */
+@Slf4j
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+
+    /**
+     * First byte of every compact value (never the first byte of a JSON document)
+     */
+    static final byte MARKER = (byte) 0xC1;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int FLAG_LZ4 = 1;
+
+    // Value tags
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte STRING = 6;
+    private static final byte BIG_DECIMAL = 7;
+    private static final byte LOCAL_DATE_TIME = 8;
+    private static final byte UUID_VALUE = 9;
+    private static final byte LIST = 10;
+    private static final byte MAP = 11;
+    private static final byte PAGE = 12;
+    private static final byte CACHED_VALUE = 13;
+    private static final byte PRODUCT = 14;
+    private static final byte CATEGORY = 15;
+    private static final byte PRICE_INFO = 16;
+    private static final byte INVENTORY_INFO = 17;
+    private static final byte PRODUCT_IMAGE = 18;
+    private static final byte JSON = 19;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final RedisSerializer<Object> fallback;
+    private final boolean writeCompact;
+    private final int compressionThreshold;
+
+    /**
+     * @param fallback Serializer for values without a compact encoding, and for entries written in its format
+     * @param writeCompact Whether to write the compact format (false writes with the fallback but still reads both,
+     *                     which is the first step of switching a running cluster over)
+     * @param compressionThreshold Encoded size above which values are LZ4-compressed (0 or less disables compression)
+     */
+    public CompactCacheSerializer(RedisSerializer<Object> fallback, boolean writeCompact, int compressionThreshold) {
+        this.fallback = fallback;
+        this.writeCompact = writeCompact;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (!writeCompact) {
+            return fallback.serialize(value);
+        }
+        Output body = new Output(256);
+        writeValue(body, value);
+
+        if (compressionThreshold > 0 && body.size > compressionThreshold) {
+            byte[] compressed = new byte[COMPRESSOR.maxCompressedLength(body.size)];
+            int compressedLength = COMPRESSOR.compress(body.bytes, 0, body.size, compressed, 0, compressed.length);
+            if (compressedLength + 5 < body.size) {
+                Output output = new Output(compressedLength + 8);
+                output.writeHeader(FLAG_LZ4);
+                output.writeVarInt(body.size);
+                output.writeBytes(compressed, 0, compressedLength);
+                return output.toByteArray();
+            }
+        }
+        Output output = new Output(body.size + 3);
+        output.writeHeader(0);
+        output.writeBytes(body.bytes, 0, body.size);
+        return output.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MARKER) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < 3 || bytes[1] != FORMAT_VERSION) {
+            // Written by a node with another format version: treat as a miss so it gets recomputed
+            log.debug("Ignoring cache value of unknown format version {}", bytes.length < 2 ? -1 : bytes[1]);
+            return null;
+        }
+
+        try {
+            Input input = new Input(bytes, 3);
+            if ((bytes[2] & FLAG_LZ4) != 0) {
+                int length = input.readVarInt();
+                byte[] body = new byte[length];
+                DECOMPRESSOR.decompress(bytes, input.position, body, 0, length);
+                input = new Input(body, 0);
+            }
+            return readValue(input);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to read compact cache value", e);
+        }
+    }
+
+    private void writeValue(Output out, Object value) {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case Boolean b -> out.writeByte(b ? TRUE : FALSE);
+            case Integer i -> {
+                out.writeByte(INT);
+                out.writeVarLong(zigZag(i));
+            }
+            case Long l -> {
+                out.writeByte(LONG);
+                out.writeVarLong(zigZag(l));
+            }
+            case Double d -> {
+                out.writeByte(DOUBLE);
+                out.writeLong(Double.doubleToLongBits(d));
+            }
+            case String s -> {
+                out.writeByte(STRING);
+                out.writeString(s);
+            }
+            case BigDecimal decimal -> {
+                out.writeByte(BIG_DECIMAL);
+                out.writeVarLong(zigZag(decimal.scale()));
+                byte[] unscaled = decimal.unscaledValue().toByteArray();
+                out.writeVarInt(unscaled.length);
+                out.writeBytes(unscaled, 0, unscaled.length);
+            }
+            case LocalDateTime dateTime -> {
+                out.writeByte(LOCAL_DATE_TIME);
+                out.writeVarLong(zigZag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+                out.writeVarInt(dateTime.getNano());
+            }
+            case UUID uuid -> {
+                out.writeByte(UUID_VALUE);
+                out.writeLong(uuid.getMostSignificantBits());
+                out.writeLong(uuid.getLeastSignificantBits());
+            }
+            case CachedValue cached -> {
+                out.writeByte(CACHED_VALUE);
+                writeValue(out, cached.value());
+                out.writeVarLong(zigZag(cached.computeMillis()));
+                out.writeVarLong(zigZag(cached.expiresAt()));
+            }
+            case ProductDTO product -> writeProduct(out, product);
+            case CategoryDTO category -> writeCategory(out, category);
+            case ProductDTO.PriceInfoDTO price -> {
+                out.writeByte(PRICE_INFO);
+                writeFields(out, price.regularPrice(), price.salePrice(), price.currentPrice(), price.currencyCode(),
+                    price.onSale(), price.saleStartDate(), price.saleEndDate());
+            }
+            case ProductDTO.InventoryInfoDTO inventory -> {
+                out.writeByte(INVENTORY_INFO);
+                writeFields(out, inventory.status(), inventory.quantity(), inventory.availableQuantity(),
+                    inventory.locationCode());
+            }
+            case ProductImageDTO image -> {
+                out.writeByte(PRODUCT_IMAGE);
+                writeFields(out, image.id(), image.productId(), image.url(), image.thumbnailUrl(), image.type(),
+                    image.sortOrder(), image.altText(), image.createdAt(), image.updatedAt());
+            }
+            case Page<?> page when isPlain(page.getPageable()) -> writePage(out, page);
+            case List<?> list -> {
+                out.writeByte(LIST);
+                out.writeVarInt(list.size());
+                for (Object element : list) {
+                    writeValue(out, element);
+                }
+            }
+            case Map<?, ?> map when map.keySet().stream().allMatch(String.class::isInstance) -> {
+                out.writeByte(MAP);
+                out.writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    out.writeString((String) entry.getKey());
+                    writeValue(out, entry.getValue());
+                }
+            }
+            default -> {
+                byte[] json = fallback.serialize(value);
+                out.writeByte(JSON);
+                out.writeVarInt(json.length);
+                out.writeBytes(json, 0, json.length);
+            }
+        }
+    }
+
+    private void writeProduct(Output out, ProductDTO product) {
+        out.writeByte(PRODUCT);
+        writeFields(out, product.id(), product.sku(), product.name(), product.description(), product.brand(),
+            product.attributes(), product.tags(), product.category(), product.price(), product.inventory(),
+            product.images(), product.imageUrl(), product.active(), product.createdAt(), product.updatedAt());
+    }
+
+    private void writeCategory(Output out, CategoryDTO category) {
+        out.writeByte(CATEGORY);
+        writeFields(out, category.id(), category.name(), category.description(), category.parentId(), category.parent(),
+            category.children(), category.level(), category.path(), category.active(), category.createdAt(),
+            category.updatedAt(), category.productCount());
+    }
+
+    private void writePage(Output out, Page<?> page) {
+        out.writeByte(PAGE);
+        writeValue(out, page.getContent());
+        Pageable pageable = page.getPageable();
+        out.writeVarInt(pageable.getPageNumber());
+        out.writeVarInt(pageable.getPageSize());
+        out.writeVarLong(page.getTotalElements());
+        List<Sort.Order> orders = pageable.getSort().toList();
+        out.writeVarInt(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeString(order.getProperty());
+            out.writeByte(order.isAscending() ? TRUE : FALSE);
+        }
+    }
+
+    private void writeFields(Output out, Object... fields) {
+        for (Object field : fields) {
+            writeValue(out, field);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(Input in) {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case INT -> (int) unZigZag(in.readVarLong());
+            case LONG -> unZigZag(in.readVarLong());
+            case DOUBLE -> Double.longBitsToDouble(in.readLong());
+            case STRING -> in.readString();
+            case BIG_DECIMAL -> {
+                int scale = (int) unZigZag(in.readVarLong());
+                yield new BigDecimal(new BigInteger(in.readBytes(in.readVarInt())), scale);
+            }
+            case LOCAL_DATE_TIME -> LocalDateTime.ofEpochSecond(unZigZag(in.readVarLong()), in.readVarInt(), ZoneOffset.UTC);
+            case UUID_VALUE -> new UUID(in.readLong(), in.readLong());
+            case LIST -> {
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                yield list;
+            }
+            case MAP -> {
+                int size = in.readVarInt();
+                Map<String, Object> map = new LinkedHashMap<>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    map.put(in.readString(), readValue(in));
+                }
+                yield map;
+            }
+            case PAGE -> {
+                List<Object> content = (List<Object>) readValue(in);
+                int pageNumber = in.readVarInt();
+                int pageSize = in.readVarInt();
+                long total = in.readVarLong();
+                int orderCount = in.readVarInt();
+                List<Sort.Order> orders = new ArrayList<>(orderCount);
+                for (int i = 0; i < orderCount; i++) {
+                    String property = in.readString();
+                    orders.add(in.readByte() == TRUE ? Sort.Order.asc(property) : Sort.Order.desc(property));
+                }
+                yield new PageImpl<>(content, PageRequest.of(pageNumber, pageSize, Sort.by(orders)), total);
+            }
+            case CACHED_VALUE -> new CachedValue(readValue(in), unZigZag(in.readVarLong()), unZigZag(in.readVarLong()));
+            case PRODUCT -> new ProductDTO(
+                (String) readValue(in), (String) readValue(in), (String) readValue(in), (String) readValue(in),
+                (String) readValue(in), (Map<String, Object>) readValue(in), (List<String>) readValue(in),
+                (CategoryDTO) readValue(in), (ProductDTO.PriceInfoDTO) readValue(in),
+                (ProductDTO.InventoryInfoDTO) readValue(in), (List<ProductImageDTO>) readValue(in),
+                (String) readValue(in), (Boolean) readValue(in), (LocalDateTime) readValue(in),
+                (LocalDateTime) readValue(in));
+            case CATEGORY -> new CategoryDTO(
+                (String) readValue(in), (String) readValue(in), (String) readValue(in), (String) readValue(in),
+                (CategoryDTO) readValue(in), (List<CategoryDTO>) readValue(in), (Integer) readValue(in),
+                (String) readValue(in), (Boolean) readValue(in), (LocalDateTime) readValue(in),
+                (LocalDateTime) readValue(in), (Long) readValue(in));
+            case PRICE_INFO -> new ProductDTO.PriceInfoDTO(
+                (BigDecimal) readValue(in), (BigDecimal) readValue(in), (BigDecimal) readValue(in),
+                (String) readValue(in), (Boolean) readValue(in), (LocalDateTime) readValue(in),
+                (LocalDateTime) readValue(in));
+            case INVENTORY_INFO -> new ProductDTO.InventoryInfoDTO(
+                (String) readValue(in), (Integer) readValue(in), (Integer) readValue(in), (String) readValue(in));
+            case PRODUCT_IMAGE -> new ProductImageDTO(
+                (UUID) readValue(in), (String) readValue(in), (String) readValue(in), (String) readValue(in),
+                (String) readValue(in), (Integer) readValue(in), (String) readValue(in), (LocalDateTime) readValue(in),
+                (LocalDateTime) readValue(in));
+            case JSON -> fallback.deserialize(in.readBytes(in.readVarInt()));
+            default -> throw new IllegalStateException("Unknown value tag: " + tag);
+        };
+    }
+
+    /**
+     * Pages are written as page number, size and sort (other pageables fall back to JSON)
+     */
+    private static boolean isPlain(Pageable pageable) {
+        return pageable.isPaged() && pageable.getOffset() == (long) pageable.getPageNumber() * pageable.getPageSize();
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Growable output buffer
+     */
+    private static final class Output {
+
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void writeHeader(int flags) {
+            writeByte(MARKER);
+            writeByte(FORMAT_VERSION);
+            writeByte((byte) flags);
+        }
+
+        void writeByte(byte value) {
+            ensure(1);
+            bytes[size++] = value;
+        }
+
+        void writeBytes(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf8.length);
+            writeBytes(utf8, 0, utf8.length);
+        }
+
+        byte[] toByteArray() {
+            return size == bytes.length ? bytes : Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int additional) {
+            if (size + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + additional));
+            }
+        }
+    }
+
+    /**
+     * Reader over a byte array
+     */
+    private static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return bytes[position++];
+        }
+
+        byte[] readBytes(int length) {
+            byte[] result = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return result;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.skishop.inventory.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serial;
+import java.util.List;
+
+/**
+ * Jackson mix-ins that let cached pages be read back from JSON
+ *
+ * <p>Spring Data's page types have no creators, and a sort is written as its flags but not its
+ * orders. Pages are read back from their content, page request and total, and sorts also write their orders.</p>
+ */
+public final class PageJsonModule extends SimpleModule {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public PageJsonModule() {
+        super("PageJsonModule");
+        setMixInAnnotation(PageImpl.class, PageImplMixin.class);
+        setMixInAnnotation(PageRequest.class, PageRequestMixin.class);
+        setMixInAnnotation(Sort.class, SortMixin.class);
+        setMixInAnnotation(Sort.Order.class, OrderMixin.class);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class PageImplMixin<T> {
+
+        @JsonCreator
+        PageImplMixin(@JsonProperty("content") List<T> content,
+                      @JsonProperty("pageable") Pageable pageable,
+                      @JsonProperty("totalElements") long total) {
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class PageRequestMixin {
+
+        @JsonCreator
+        static PageRequest of(@JsonProperty("pageNumber") int pageNumber,
+                              @JsonProperty("pageSize") int pageSize,
+                              @JsonProperty("sort") Sort sort) {
+            return null;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class SortMixin {
+
+        @JsonCreator
+        static Sort by(@JsonProperty("orders") List<Sort.Order> orders) {
+            return null;
+        }
+
+        @JsonProperty("orders")
+        abstract List<Sort.Order> toList();
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class OrderMixin {
+
+        @JsonCreator
+        OrderMixin(@JsonProperty("direction") Sort.Direction direction,
+                   @JsonProperty("property") String property,
+                   @JsonProperty("ignoreCase") boolean ignoreCase,
+                   @JsonProperty("nullHandling") Sort.NullHandling nullHandling) {
+        }
+    }
+}
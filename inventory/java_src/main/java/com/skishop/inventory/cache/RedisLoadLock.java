@@ -0,0 +1,94 @@
+package com.skishop.inventory.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Cross-node lock held while an expensive cache entry is computed
+ * (other nodes wait for the value in Redis instead of computing it too)
+ */
+@Slf4j
+public class RedisLoadLock {
+
+    private static final String KEY_PREFIX = "inventory:cache:lock:";
+
+    /**
+     * Delete the lock only if it is still ours (it may have expired and been taken by another node)
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration lockTtl;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+
+    public RedisLoadLock(StringRedisTemplate redisTemplate, Duration lockTtl, Duration waitTimeout, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.lockTtl = lockTtl;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Try to take the lock of an entry
+     *
+     * @return Token to release the lock with, or null when another node holds it
+     *         (when Redis is unavailable a token is returned and the caller loads without the lock)
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, lockTtl);
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (RuntimeException e) {
+            log.warn("Failed to take cache load lock, loading without it - Cache: {}, Key: {}", cacheName, key, e);
+            return token;
+        }
+    }
+
+    /**
+     * Release a lock taken with {@link #tryAcquire}
+     */
+    public void release(String cacheName, String key, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(cacheName, key)), token);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release cache load lock - Cache: {}, Key: {}", cacheName, key, e);
+        }
+    }
+
+    /**
+     * Wait for the node holding the lock to store the value
+     *
+     * @return The stored value, or null when it did not appear within the wait timeout
+     */
+    public <T> T awaitValue(Supplier<T> lookup) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            T value = lookup.get();
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return KEY_PREFIX + cacheName + ":" + key;
+    }
+}
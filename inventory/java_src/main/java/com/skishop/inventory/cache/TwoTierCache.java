@@ -0,0 +1,526 @@
+package com.skishop.inventory.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Two-tier cache
+ * Bounded in-process cache (L1) in front of a shared Redis cache (L2)
+ *
+ * <p>Loads through {@link #get(Object, Callable)} are protected against stampedes: concurrent misses
+ * of a key on one node share a single load, caches with a load lock also let only one node compute
+ * an entry while the others wait for it in Redis, and entries close to their Redis expiry are
+ * recomputed early in the background while the current value keeps being served (the closer to
+ * expiry and the slower the load, the likelier the refresh).</p>
+ *
+ * <p>An early refresh does not reuse the loader of the request that triggered it: that loader
+ * belongs to the caller's invocation. Caches resolved by {@link TwoTierCacheResolver} carry a
+ * refresher that invokes the cached method again through its bean; the nested lookup of the key
+ * on the refresh thread then loads instead of returning the current entry.</p>
+ *
+ * <p>Tags reported through {@link CacheDependencies} while a value is loaded are registered in the
+ * {@link CacheTagIndex}, so {@link TwoTierCacheManager#evictTags} can evict the entry when one of
+ * its sources changes.</p>
+ */
+@Slf4j
+public class TwoTierCache implements Cache {
+
+    /**
+     * Number of eviction generation stripes (power of two)
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final String name;
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CachedValue> local;
+    private final BiConsumer<String, String> evictionPublisher;
+    private final Duration remoteTtl;
+    private final double earlyRefreshBeta;
+    private final RedisLoadLock loadLock;
+    private final Executor refreshExecutor;
+    private final CacheTagIndex tagIndex;
+
+    /**
+     * Loads running on this node, by local key (followers wait for the leader's result)
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+    private final Set<String> refreshesInFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Local evictions per key stripe and local clears; a value read from Redis is only copied
+     * into the local tier when no eviction of its key happened since the read began
+     */
+    private final AtomicLongArray evictionGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong clearGeneration = new AtomicLong();
+
+    /**
+     * Entry being refreshed on this thread (its next lookup loads instead of hitting)
+     */
+    private static final ThreadLocal<RefreshTarget> REFRESHING = new ThreadLocal<>();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter explicitEvictions;
+    private final Counter clears;
+    private final Counter remoteEvictions;
+    private final Map<RemovalCause, Counter> localEvictions = new EnumMap<>(RemovalCause.class);
+    private final Counter loads;
+    private final Counter coalescedLoads;
+    private final Counter awaitedLoads;
+    private final Counter earlyRefreshes;
+
+    /**
+     * @param remoteTtl TTL of the Redis cache (entries carry their expiry for early refresh)
+     * @param earlyRefreshBeta Eagerness of early refresh (0 disables it; 1 is the usual setting)
+     * @param loadLock Cross-node load lock, or null to let every node load on its own
+     * @param refreshExecutor Runs early refreshes
+     * @param tagIndex Reverse index of the dependencies reported while loading
+     */
+    public TwoTierCache(String name, Cache remote, long localMaxWeight, Duration localTtl,
+                        BiConsumer<String, String> evictionPublisher, MeterRegistry meterRegistry,
+                        Duration remoteTtl, double earlyRefreshBeta, RedisLoadLock loadLock, Executor refreshExecutor,
+                        CacheTagIndex tagIndex) {
+        this.name = name;
+        this.remote = remote;
+        this.evictionPublisher = evictionPublisher;
+        this.remoteTtl = remoteTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.loadLock = loadLock;
+        this.refreshExecutor = refreshExecutor;
+        this.tagIndex = tagIndex;
+        this.local = Caffeine.newBuilder()
+            .maximumWeight(localMaxWeight)
+            .weigher((String key, CachedValue value) -> CacheValueWeigher.weigh(value.value()))
+            .expireAfterWrite(localTtl)
+            .evictionListener((String key, CachedValue value, RemovalCause cause) -> recordLocalEviction(cause))
+            .build();
+
+        this.localHits = tierCounter(meterRegistry, "local", "hit");
+        this.localMisses = tierCounter(meterRegistry, "local", "miss");
+        this.remoteHits = tierCounter(meterRegistry, "redis", "hit");
+        this.remoteMisses = tierCounter(meterRegistry, "redis", "miss");
+        this.explicitEvictions = evictionCounter(meterRegistry, "explicit");
+        this.clears = evictionCounter(meterRegistry, "clear");
+        this.remoteEvictions = evictionCounter(meterRegistry, "remote");
+        for (RemovalCause cause : RemovalCause.values()) {
+            if (cause.wasEvicted()) {
+                localEvictions.put(cause, evictionCounter(meterRegistry, cause.name().toLowerCase()));
+            }
+        }
+        this.loads = loadCounter(meterRegistry, "loaded");
+        this.coalescedLoads = loadCounter(meterRegistry, "coalesced");
+        this.awaitedLoads = loadCounter(meterRegistry, "awaited");
+        this.earlyRefreshes = loadCounter(meterRegistry, "early_refresh");
+        Gauge.builder("cache.tier.size", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+            .tag("cache", name)
+            .tag("tier", "local")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CachedValue entry = lookup(key, localKey(key));
+        return entry == null ? null : new SimpleValueWrapper(entry.value());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return get(key, valueLoader, null);
+    }
+
+    /**
+     * Cache view bound to one invocation of a cached method
+     *
+     * @param refresher Invokes the cached method again (used for early refresh)
+     */
+    Cache withRefresher(Runnable refresher) {
+        return new RefreshableCache(refresher);
+    }
+
+    /**
+     * @param refresher Recomputes the entry through the cached method, or null to never refresh early
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(Object key, Callable<T> valueLoader, Runnable refresher) {
+        String localKey = localKey(key);
+        RefreshTarget refreshing = REFRESHING.get();
+        if (refreshing != null && refreshing.cache() == this && refreshing.localKey().equals(localKey)) {
+            REFRESHING.remove();
+            return (T) load(key, localKey, valueLoader);
+        }
+
+        CachedValue entry = lookup(key, localKey);
+        if (entry != null) {
+            if (refresher != null && shouldRefreshEarly(entry)) {
+                refreshEarly(localKey, refresher);
+            }
+            return (T) entry.value();
+        }
+
+        // Single flight: the first miss loads, concurrent misses of the same key wait for it
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = loadsInFlight.putIfAbsent(localKey, flight);
+        if (leader != null) {
+            coalescedLoads.increment();
+            try {
+                return (T) leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause
+                    : new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            Object value = loadLocked(key, localKey, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadsInFlight.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, localKey(key), value, 0);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        invalidateLocal(localKey);
+        explicitEvictions.increment();
+        evictionPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        invalidateAllLocal();
+        clears.increment();
+        evictionPublisher.accept(name, null);
+    }
+
+    /**
+     * Load a missing entry, under the cross-node lock if this cache has one
+     */
+    private Object loadLocked(Object key, String localKey, Callable<?> valueLoader) {
+        if (loadLock == null) {
+            return load(key, localKey, valueLoader);
+        }
+        String token = loadLock.tryAcquire(name, localKey);
+        if (token == null) {
+            // Another node is computing the entry; take its value, or load ourselves if it takes too long
+            CachedValue stored = loadLock.awaitValue(() -> remoteLookup(key, localKey));
+            if (stored != null) {
+                awaitedLoads.increment();
+                return stored.value();
+            }
+            return load(key, localKey, valueLoader);
+        }
+        try {
+            // The previous holder may have stored the entry just before we took the lock
+            CachedValue stored = remoteLookup(key, localKey);
+            return stored != null ? stored.value() : load(key, localKey, valueLoader);
+        } finally {
+            loadLock.release(name, localKey, token);
+        }
+    }
+
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        long evictionSequence = tagIndex == null ? 0 : tagIndex.sequence();
+        Set<String> tags = new HashSet<>();
+        Object value;
+        try {
+            value = CacheDependencies.track(valueLoader, tags);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        loads.increment();
+        store(key, localKey, value, (System.nanoTime() - start) / 1_000_000);
+        // Register after storing: a later eviction of a tag finds the entry, an earlier one is seen by the check
+        if (!tags.isEmpty() && tagIndex.register(name, localKey, tags, remoteTtl, evictionSequence)) {
+            log.debug("Cache entry evicted after load, a source changed meanwhile - Cache: {}, Key: {}", name, localKey);
+            evict(key);
+        }
+        return value;
+    }
+
+    /**
+     * Probabilistic early expiration: refresh when now - computeMillis * beta * ln(random) reaches the expiry
+     */
+    private boolean shouldRefreshEarly(CachedValue entry) {
+        if (earlyRefreshBeta <= 0 || entry.computeMillis() <= 0) {
+            return false;
+        }
+        double gap = -entry.computeMillis() * earlyRefreshBeta * Math.log(ThreadLocalRandom.current().nextDouble());
+        return System.currentTimeMillis() + gap >= entry.expiresAt();
+    }
+
+    /**
+     * Recompute an entry in the background (at most one refresh per key per node; skipped while another node holds the lock)
+     */
+    private void refreshEarly(String localKey, Runnable refresher) {
+        if (!refreshesInFlight.add(localKey)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                String token = loadLock == null ? null : loadLock.tryAcquire(name, localKey);
+                try {
+                    if (loadLock == null || token != null) {
+                        earlyRefreshes.increment();
+                        REFRESHING.set(new RefreshTarget(this, localKey));
+                        refresher.run();
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Early cache refresh failed - Cache: {}, Key: {}", name, localKey, e);
+                } finally {
+                    REFRESHING.remove();
+                    if (token != null) {
+                        loadLock.release(name, localKey, token);
+                    }
+                    refreshesInFlight.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshesInFlight.remove(localKey);
+        }
+    }
+
+    /**
+     * Look up both tiers (the local tier is filled from Redis on a local miss)
+     */
+    private CachedValue lookup(Object key, String localKey) {
+        CachedValue entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            localHits.increment();
+            return entry;
+        }
+        localMisses.increment();
+
+        entry = remoteLookup(key, localKey);
+        if (entry == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        return entry;
+    }
+
+    private CachedValue remoteLookup(Object key, String localKey) {
+        long generation = evictionGeneration(localKey);
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        // Entries written before values carried their expiry are never refreshed early
+        CachedValue entry = wrapper.get() instanceof CachedValue cachedValue
+            ? cachedValue : new CachedValue(wrapper.get(), 0, Long.MAX_VALUE);
+        // An eviction after the read must not be undone by copying the value it removed into the local tier
+        // (checked under the entry's lock, which the eviction also takes after advancing the generation)
+        local.asMap().compute(localKey, (ignored, current) ->
+            current != null || evictionGeneration(localKey) != generation ? current : entry);
+        return entry;
+    }
+
+    private void store(Object key, String localKey, Object value, long computeMillis) {
+        CachedValue entry = new CachedValue(value, computeMillis, System.currentTimeMillis() + remoteTtl.toMillis());
+        remote.put(key, entry);
+        local.put(localKey, entry);
+    }
+
+    /**
+     * Evict an entry from the local tier only (eviction received from another node)
+     */
+    void evictLocal(String key) {
+        invalidateLocal(key);
+        remoteEvictions.increment();
+    }
+
+    /**
+     * Clear the local tier only (clear received from another node)
+     */
+    void clearLocal() {
+        invalidateAllLocal();
+        remoteEvictions.increment();
+    }
+
+    private void invalidateLocal(String localKey) {
+        evictionGenerations.incrementAndGet(generationStripe(localKey));
+        local.invalidate(localKey);
+    }
+
+    private void invalidateAllLocal() {
+        clearGeneration.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    /**
+     * Changes whenever the key is evicted or the local tier cleared (both counters only grow)
+     */
+    private long evictionGeneration(String localKey) {
+        return clearGeneration.get() + evictionGenerations.get(generationStripe(localKey));
+    }
+
+    private static int generationStripe(String localKey) {
+        int hash = localKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Count an entry the local tier dropped on its own (size, expiry)
+     */
+    private void recordLocalEviction(RemovalCause cause) {
+        Counter counter = localEvictions.get(cause);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Local keys are normalized to strings so that evictions broadcast by other nodes match
+     */
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter tierCounter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+            .description("Cache lookups per tier")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Loads by outcome: loaded, coalesced (waited for a load on this node), awaited (took the value
+     * loaded by another node) or early_refresh
+     */
+    private Counter loadCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.tier.loads")
+            .description("Cache loads by outcome")
+            .tag("cache", name)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Evictions by cause: explicit, clear, remote (received from another node), or size / expired / collected (local tier)
+     */
+    private Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("cache.tier.evictions")
+            .description("Cache evictions by cause")
+            .tag("cache", name)
+            .tag("cause", cause)
+            .register(meterRegistry);
+    }
+
+    private record RefreshTarget(TwoTierCache cache, String localKey) {}
+
+    /**
+     * This cache, with the refresher of one invocation for its loads
+     */
+    private final class RefreshableCache implements Cache {
+
+        private final Runnable refresher;
+
+        RefreshableCache(Runnable refresher) {
+            this.refresher = refresher;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return local;
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return TwoTierCache.this.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return TwoTierCache.this.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return TwoTierCache.this.get(key, valueLoader, refresher);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            TwoTierCache.this.put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            TwoTierCache.this.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            TwoTierCache.this.clear();
+        }
+    }
+}
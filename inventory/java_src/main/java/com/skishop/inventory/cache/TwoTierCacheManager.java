@@ -0,0 +1,155 @@
+package com.skishop.inventory.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-tier cache manager
+ * Wraps each cache of the Redis cache manager with a local tier and keeps the local
+ * tiers of all nodes coherent by broadcasting evictions over Redis pub/sub
+ * (entries can also be evicted by the tags of what they were built from)
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final String SEPARATOR = "\n";
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String invalidationChannel;
+    private final long localMaxWeight;
+    private final Duration localTtl;
+    private final Duration remoteTtl;
+    private final double earlyRefreshBeta;
+    private final Set<String> lockedCaches;
+    private final RedisLoadLock loadLock;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final CacheTagIndex tagIndex;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param lockedCaches Caches whose entries are computed by one node at a time (expensive entries)
+     * @param refreshThreads Threads running early refreshes (refreshes beyond the queue are skipped)
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry, String invalidationChannel,
+                               long localMaxWeight, Duration localTtl, Duration remoteTtl,
+                               double earlyRefreshBeta, Set<String> lockedCaches, RedisLoadLock loadLock,
+                               int refreshThreads) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.invalidationChannel = invalidationChannel;
+        this.localMaxWeight = localMaxWeight;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.lockedCaches = Set.copyOf(lockedCaches);
+        this.loadLock = loadLock;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        this.tagIndex = new CacheTagIndex(redisTemplate);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            return remote == null ? null : new TwoTierCache(
+                cacheName, remote, localMaxWeight, localTtl, this::publishEviction, meterRegistry,
+                remoteTtl, earlyRefreshBeta, lockedCaches.contains(cacheName) ? loadLock : null, refreshExecutor,
+                tagIndex);
+        });
+    }
+
+    /**
+     * Evict every entry, in any cache, that was built from one of the tags
+     * (local tiers of other nodes are evicted through the usual broadcast)
+     */
+    public void evictTags(Collection<String> tags) {
+        Map<String, Set<String>> entries = tagIndex.take(tags, remoteTtl);
+        entries.forEach((cacheName, keys) -> {
+            Cache cache = getCache(cacheName);
+            if (cache != null) {
+                keys.forEach(cache::evict);
+            }
+        });
+        log.debug("Evicted cache entries by tag - Tags: {}, Entries: {}", tags,
+            entries.values().stream().mapToInt(Set::size).sum());
+    }
+
+    /**
+     * Stop the early refresh threads (called by the container on shutdown)
+     */
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * Broadcast an eviction to the other nodes (key is null when the whole cache is cleared)
+     */
+    private void publishEviction(String cacheName, String key) {
+        String payload = nodeId + SEPARATOR + cacheName + (key == null ? "" : SEPARATOR + key);
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, payload);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast cache eviction - Cache: {}, Key: {}", cacheName, key, e);
+        }
+    }
+
+    /**
+     * Apply an eviction broadcast by another node to the local tier
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts.length == 2) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        log.debug("Applied remote cache eviction - Cache: {}, Key: {}", parts[1], parts.length == 2 ? "*" : parts[2]);
+    }
+}
@@ -0,0 +1,60 @@
+package com.skishop.inventory.cache;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache resolver for the two-tier caches
+ *
+ * <p>Each two-tier cache is handed out with a refresher for the current invocation: it calls the
+ * same method with the same arguments on the bean (through its proxy, so transactions and caching
+ * apply), which is how an entry is recomputed early on a background thread.</p>
+ */
+public class TwoTierCacheResolver implements CacheResolver {
+
+    private final Supplier<CacheManager> cacheManager;
+    private final BeanFactory beanFactory;
+
+    /**
+     * @param cacheManager Supplies the cache manager (resolved lazily, on first use)
+     */
+    public TwoTierCacheResolver(Supplier<CacheManager> cacheManager, BeanFactory beanFactory) {
+        this.cacheManager = cacheManager;
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<String> cacheNames = context.getOperation().getCacheNames();
+        List<Cache> caches = new ArrayList<>(cacheNames.size());
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.get().getCache(cacheName);
+            if (cache == null) {
+                throw new IllegalArgumentException(
+                    "Cannot find cache named '" + cacheName + "' for " + context.getOperation());
+            }
+            caches.add(cache instanceof TwoTierCache twoTierCache
+                ? twoTierCache.withRefresher(() -> invokeAgain(context))
+                : cache);
+        }
+        return caches;
+    }
+
+    /**
+     * Call the cached method again on the bean that owns it
+     */
+    private void invokeAgain(CacheOperationInvocationContext<?> context) {
+        Object bean = beanFactory.getBean(AopUtils.getTargetClass(context.getTarget()));
+        ReflectionUtils.invokeMethod(context.getMethod(), bean, context.getArgs());
+    }
+}
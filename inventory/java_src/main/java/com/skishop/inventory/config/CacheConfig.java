@@ -1,34 +1,180 @@
 package com.skishop.inventory.config;
 
-import org.springframework.cache.CacheManager;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.skishop.inventory.cache.CompactCacheSerializer;
+import com.skishop.inventory.cache.PageJsonModule;
+import com.skishop.inventory.cache.RedisLoadLock;
+import com.skishop.inventory.cache.TwoTierCacheManager;
+import com.skishop.inventory.cache.TwoTierCacheResolver;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 /**
  * Cache configuration
  */
 @Configuration
 @EnableCaching
-public class CacheConfig {
+public class CacheConfig implements CachingConfigurer {
 
+    private final BeanFactory beanFactory;
+
+    @Value("${app.inventory.cache.local.max-weight:10000}")
+    private long localMaxWeight;
+
+    @Value("${app.inventory.cache.local.ttl:60}")
+    private long localTtlSeconds;
+
+    @Value("${app.inventory.cache.invalidation-channel:inventory:cache:invalidation}")
+    private String invalidationChannel;
+
+    @Value("${app.inventory.cache.ttl:300}")
+    private long ttlSeconds;
+
+    @Value("${app.inventory.cache.serializer.format:compact}")
+    private String serializerFormat;
+
+    @Value("${app.inventory.cache.serializer.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${app.inventory.cache.stampede.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    @Value("${app.inventory.cache.stampede.refresh-threads:2}")
+    private int refreshThreads;
+
+    @Value("${app.inventory.cache.stampede.locked-caches:product,productsByCategory}")
+    private Set<String> lockedCaches;
+
+    @Value("${app.inventory.cache.stampede.lock-ttl-ms:10000}")
+    private long lockTtlMillis;
+
+    @Value("${app.inventory.cache.stampede.lock-wait-ms:3000}")
+    private long lockWaitMillis;
+
+    @Value("${app.inventory.cache.stampede.lock-poll-ms:25}")
+    private long lockPollMillis;
+
+    public CacheConfig(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Shared Redis cache (second tier)
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(5))
+            .entryTtl(Duration.ofSeconds(ttlSeconds))
             .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                cacheValueSerializer(serializerFormat, compressionThreshold)));
 
         return RedisCacheManager.builder(redisConnectionFactory)
             .cacheDefaults(config)
             .build();
     }
+
+    /**
+     * Serializer for values in the Redis cache
+     *
+     * <p>Both formats read entries written in either format, so a cluster can be switched over
+     * by rolling out the reader first ({@code json}) and then the writer ({@code compact}).</p>
+     *
+     * @param format compact (binary) or json
+     * @param compressionThreshold Encoded size above which compact values are LZ4-compressed (0 disables it)
+     */
+    public static RedisSerializer<Object> cacheValueSerializer(String format, int compressionThreshold) {
+        boolean compact = switch (format) {
+            case "compact" -> true;
+            case "json" -> false;
+            default -> throw new IllegalArgumentException("Unknown cache serializer format: " + format);
+        };
+        return new CompactCacheSerializer(jsonCacheValueSerializer(), compact, compressionThreshold);
+    }
+
+    /**
+     * JSON serializer for cache values (embedded by the compact format for other types)
+     *
+     * <p>Dates are written as ISO strings, pages through {@link PageJsonModule}, and unknown
+     * properties are ignored on read.</p>
+     */
+    public static RedisSerializer<Object> jsonCacheValueSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new PageJsonModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return GenericJackson2JsonRedisSerializer.builder()
+            .objectMapper(objectMapper)
+            .defaultTyping(true)
+            .registerNullValueSerializer(true)
+            .build();
+    }
+
+    /**
+     * Local cache (first tier) in front of the Redis cache, with stampede protection for loads
+     */
+    @Bean
+    @Primary
+    public TwoTierCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            MeterRegistry meterRegistry) {
+        return new TwoTierCacheManager(
+            redisCacheManager,
+            stringRedisTemplate,
+            meterRegistry,
+            invalidationChannel,
+            localMaxWeight,
+            Duration.ofSeconds(localTtlSeconds),
+            Duration.ofSeconds(ttlSeconds),
+            earlyRefreshBeta,
+            lockedCaches,
+            new RedisLoadLock(stringRedisTemplate, Duration.ofMillis(lockTtlMillis),
+                Duration.ofMillis(lockWaitMillis), Duration.ofMillis(lockPollMillis)),
+            refreshThreads
+        );
+    }
+
+    /**
+     * Resolves the caches of annotated methods with a refresher that calls the method again (early refresh)
+     */
+    @Override
+    public CacheResolver cacheResolver() {
+        return new TwoTierCacheResolver(() -> beanFactory.getBean(TwoTierCacheManager.class), beanFactory);
+    }
+
+    /**
+     * Receives cache evictions broadcast by other nodes
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                            TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(invalidationChannel));
+        return container;
+    }
 }
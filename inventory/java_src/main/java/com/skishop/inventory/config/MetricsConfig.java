@@ -0,0 +1,21 @@
+package com.skishop.inventory.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics configuration
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Times methods of classes annotated with @Timed (tagged with class, method and exception)
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -5,6 +5,7 @@ import com.skishop.inventory.dto.ProductDTO;
 import com.skishop.inventory.dto.request.CategoryCreateRequest;
 import com.skishop.inventory.dto.request.CategoryUpdateRequest;
 import com.skishop.inventory.service.CategoryService;
+import com.skishop.inventory.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -34,6 +35,7 @@ import org.springframework.web.bind.annotation.*;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ProductService productService;
 
     /**
      * Get category list
@@ -84,7 +86,7 @@ public class CategoryController {
             @Parameter(description = "Only products in stock") @RequestParam(defaultValue = "false") boolean inStockOnly) {
         
         log.info("Getting products for category: {}, inStockOnly: {}", id, inStockOnly);
-        Page<ProductDTO> products = categoryService.getProductsByCategory(id, pageable, inStockOnly);
+        Page<ProductDTO> products = productService.findByCategory(id, pageable, inStockOnly);
         return ResponseEntity.ok(products);
     }
 
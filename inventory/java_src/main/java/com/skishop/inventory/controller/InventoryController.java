@@ -2,6 +2,7 @@ package com.skishop.inventory.controller;
 
 import com.skishop.inventory.entity.jpa.Inventory;
 import com.skishop.inventory.service.InventoryService;
+import com.skishop.inventory.service.ReservationHoldService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +13,12 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Inventory API Controller
@@ -26,6 +31,7 @@ import java.util.Map;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final ReservationHoldService reservationHoldService;
 
     /**
      * Get inventory information for a product
@@ -77,10 +83,28 @@ public class InventoryController {
     public ResponseEntity<String> reserveStock(@Valid @RequestBody StockReserveRequest request) {
         log.info("Stock reservation request - Product ID: {}, Quantity: {}", request.productId(), request.quantity());
         
-        inventoryService.reserveStock(request.productId(), request.quantity());
+        switch (inventoryService.getReservationMode()) {
+            case GROUP_COMMIT -> inventoryService.reserveStockGrouped(
+                request.productId(), request.quantity(), request.orderId(), request.holdSeconds());
+            default -> inventoryService.reserveStock(
+                request.productId(), request.quantity(), request.orderId(), request.holdSeconds());
+        }
         return ResponseEntity.ok("Stock reservation completed");
     }
 
+    /**
+     * Reserve stock for all lines of an order atomically
+     */
+    @PostMapping("/reserve-batch")
+    public ResponseEntity<String> reserveStockBatch(@Valid @RequestBody StockReserveBatchRequest request) {
+        log.info("Batch stock reservation request - Order ID: {}, Lines: {}", request.orderId(), request.lines().size());
+        
+        Map<String, Integer> quantities = request.lines().stream()
+            .collect(Collectors.toMap(StockReserveLine::productId, StockReserveLine::quantity, Integer::sum));
+        inventoryService.reserveStockBatch(request.orderId(), quantities, request.holdSeconds());
+        return ResponseEntity.ok("Batch stock reservation completed");
+    }
+
     /**
      * Release reserved stock
      */
@@ -88,10 +112,32 @@ public class InventoryController {
     public ResponseEntity<String> releaseStock(@Valid @RequestBody StockReleaseRequest request) {
         log.info("Release reserved stock request - Product ID: {}, Quantity: {}", request.productId(), request.quantity());
         
-        inventoryService.releaseStock(request.productId(), request.quantity());
+        inventoryService.releaseStock(request.productId(), request.quantity(), request.orderId());
         return ResponseEntity.ok("Stock reservation released");
     }
 
+    /**
+     * Release all open holds of an order
+     */
+    @PostMapping("/holds/{orderId}/release")
+    public ResponseEntity<String> releaseHolds(@PathVariable String orderId) {
+        log.info("Release holds request - Order ID: {}", orderId);
+        
+        reservationHoldService.releaseHolds(orderId);
+        return ResponseEntity.ok("Holds released");
+    }
+
+    /**
+     * Confirm all active holds of an order (confirmed holds no longer expire)
+     */
+    @PostMapping("/holds/{orderId}/confirm")
+    public ResponseEntity<String> confirmHolds(@PathVariable String orderId) {
+        log.info("Confirm holds request - Order ID: {}", orderId);
+        
+        reservationHoldService.confirmHolds(orderId);
+        return ResponseEntity.ok("Holds confirmed");
+    }
+
     /**
      * Stock in process
      */
@@ -110,10 +156,23 @@ public class InventoryController {
     public ResponseEntity<String> stockOut(@Valid @RequestBody StockOutRequest request) {
         log.info("Stock out process request - Product ID: {}, Quantity: {}", request.productId(), request.quantity());
         
-        inventoryService.stockOut(request.productId(), request.quantity());
+        inventoryService.stockOut(request.productId(), request.quantity(), request.orderId());
         return ResponseEntity.ok("Stock out process completed");
     }
 
+    /**
+     * Apply a batch of stock movements (warehouse receipts and shipments)
+     */
+    @PostMapping("/movements")
+    public ResponseEntity<StockMovementBatchResponse> applyStockMovements(@Valid @RequestBody StockMovementBatchRequest request) {
+        log.info("Stock movement batch request - Lines: {}", request.lines().size());
+        
+        List<InventoryService.StockMovementResult> results = inventoryService.applyStockMovements(request.lines().stream()
+            .map(line -> new InventoryService.StockMovement(line.productId(), line.locationCode(), line.delta()))
+            .toList());
+        return ResponseEntity.ok(StockMovementBatchResponse.of(results));
+    }
+
     /**
      * Get list of low stock items
      */
@@ -128,13 +187,27 @@ public class InventoryController {
 
     // リクエスト・レスポンスクラス
     public record StockReserveRequest(
+        @NotBlank String productId,
+        @Min(1) Integer quantity,
+        String orderId,
+        @Min(1) Integer holdSeconds
+    ) {}
+
+    public record StockReserveLine(
         @NotBlank String productId,
         @Min(1) Integer quantity
     ) {}
 
+    public record StockReserveBatchRequest(
+        @NotBlank String orderId,
+        @NotEmpty List<@Valid StockReserveLine> lines,
+        @Min(1) Integer holdSeconds
+    ) {}
+
     public record StockReleaseRequest(
         @NotBlank String productId,
-        @Min(1) Integer quantity
+        @Min(1) Integer quantity,
+        String orderId
     ) {}
 
     public record StockInRequest(
@@ -144,9 +217,33 @@ public class InventoryController {
 
     public record StockOutRequest(
         @NotBlank String productId,
-        @Min(1) Integer quantity
+        @Min(1) Integer quantity,
+        String orderId
     ) {}
 
+    public record StockMovementLine(
+        @NotBlank String productId,
+        @NotBlank String locationCode,
+        @NotNull Integer delta
+    ) {}
+
+    public record StockMovementBatchRequest(
+        @NotEmpty @Size(max = 10000) List<@Valid StockMovementLine> lines
+    ) {}
+
+    public record StockMovementBatchResponse(
+        int applied,
+        int rejected,
+        List<InventoryService.StockMovementResult> lines
+    ) {
+        public static StockMovementBatchResponse of(List<InventoryService.StockMovementResult> lines) {
+            int applied = (int) lines.stream()
+                .filter(line -> line.status() == InventoryService.StockMovementStatus.APPLIED)
+                .count();
+            return new StockMovementBatchResponse(applied, lines.size() - applied, lines);
+        }
+    }
+
     public record InventoryStatusResponse(
         String productId,
         String status,
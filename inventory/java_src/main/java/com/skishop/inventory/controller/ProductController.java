@@ -1,7 +1,13 @@
 package com.skishop.inventory.controller;
 
+import com.skishop.inventory.dto.CursorPage;
+import com.skishop.inventory.dto.FacetedPage;
 import com.skishop.inventory.dto.ProductDTO;
+import com.skishop.inventory.dto.ProductImportResult;
 import com.skishop.inventory.dto.request.ProductCreateRequest;
+import com.skishop.inventory.repository.mongo.ProductKeysetRepository;
+import com.skishop.inventory.search.ProductFacetIndex;
+import com.skishop.inventory.service.ProductImportService;
 import com.skishop.inventory.service.ProductService;
 
 import lombok.RequiredArgsConstructor;
@@ -10,14 +16,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Product API Controller
@@ -30,6 +50,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     /**
      * Get product list
@@ -39,10 +60,26 @@ public class ProductController {
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "20") @Min(1) int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) @DecimalMin("0") BigDecimal minPrice,
+            @RequestParam(required = false) @DecimalMin("0") BigDecimal maxPrice,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(defaultValue = "JPY") String currency) {
         
         log.info("Product list request - page: {}, size: {}, sortBy: {}, sortDir: {}", page, size, sortBy, sortDir);
         
+        if (minPrice != null || maxPrice != null) {
+            // Price filters are served by the price range index, ordered by price
+            log.info("Price range filter - minPrice: {}, maxPrice: {}, currency: {}, categoryId: {}",
+                minPrice, maxPrice, currency, categoryId);
+            try {
+                return ResponseEntity.ok(productService.findByPriceRange(minPrice, maxPrice, currency, categoryId,
+                    sortDir.equalsIgnoreCase("desc"), PageRequest.of(page, size)));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+        
         Sort sort = Sort.by(sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
         
@@ -50,6 +87,22 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Get product list with cursor pagination
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ProductDTO>> getProductsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("Product slice request - after: {}, size: {}, sortBy: {}, sortDir: {}", after, size, sortBy, sortDir);
+        
+        return ResponseEntity.ok(findAfter(null, after, size, sortBy, sortDir, includeTotal));
+    }
+
     /**
      * Search products
      */
@@ -66,6 +119,61 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Faceted product search (values of one facet are alternatives; counts of every facet are returned with the page)
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedPage<ProductDTO>> searchFacets(
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<String> categoryId,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> priceBand,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        
+        log.info("Faceted search request - brand: {}, categoryId: {}, tag: {}, priceBand: {}, status: {}, page: {}, size: {}",
+            brand, categoryId, tag, priceBand, status, page, size);
+        
+        Map<ProductFacetIndex.Facet, List<String>> selections = new EnumMap<>(ProductFacetIndex.Facet.class);
+        selections.put(ProductFacetIndex.Facet.BRAND, brand);
+        selections.put(ProductFacetIndex.Facet.CATEGORY, categoryId);
+        selections.put(ProductFacetIndex.Facet.TAG, tag);
+        selections.put(ProductFacetIndex.Facet.PRICE_BAND, priceBand);
+        selections.put(ProductFacetIndex.Facet.STATUS, status);
+        return ResponseEntity.ok(productService.searchFacets(selections, PageRequest.of(page, size)));
+    }
+
+    /**
+     * Export all active products as NDJSON (gzip-compressed when the client accepts it)
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        log.info("Product export request - updatedSince: {}", updatedSince);
+        
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 8192)) {
+                    productService.exportActiveProducts(updatedSince, compressed);
+                }
+            } else {
+                productService.exportActiveProducts(updatedSince, out);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     /**
      * Get product details
      */
@@ -104,6 +212,23 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Get products by category with cursor pagination
+     */
+    @GetMapping("/category/{categoryId}/cursor")
+    public ResponseEntity<CursorPage<ProductDTO>> getProductsByCategoryAfter(
+            @PathVariable String categoryId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        log.info("Get products by category slice request - categoryId: {}, after: {}, size: {}", categoryId, after, size);
+        
+        return ResponseEntity.ok(findAfter(categoryId, after, size, sortBy, sortDir, includeTotal));
+    }
+
     /**
      * Get multiple products in batch
      */
@@ -125,4 +250,40 @@ public class ProductController {
         ProductDTO product = productService.createProduct(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(product);
     }
+
+    /**
+     * Bulk import products from CSV (with header) or NDJSON; rejected rows are reported, not fatal
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResult> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        
+        log.info("Bulk product import request - Content-Type: {}", contentType);
+        
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        ProductImportService.ImportFormat format = csv
+            ? ProductImportService.ImportFormat.CSV
+            : ProductImportService.ImportFormat.NDJSON;
+        ProductImportResult result = productImportService.importProducts(body, format);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Resolve cursor parameters (the cursor must belong to the requested sort order)
+     */
+    private CursorPage<ProductDTO> findAfter(String categoryId, String after, int size,
+                                             String sortBy, String sortDir, boolean includeTotal) {
+        try {
+            ProductKeysetRepository.SortKey sortKey = ProductKeysetRepository.SortKey.fromField(sortBy);
+            Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+            ProductKeysetRepository.Cursor cursor = after == null ? null : ProductKeysetRepository.Cursor.decode(after);
+            if (cursor != null && (cursor.sortKey() != sortKey || cursor.direction() != direction)) {
+                throw new IllegalArgumentException("Cursor does not match the sort order");
+            }
+            return productService.findAfter(categoryId, cursor, sortKey, direction, size, includeTotal);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
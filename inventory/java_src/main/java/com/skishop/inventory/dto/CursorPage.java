@@ -0,0 +1,20 @@
+package com.skishop.inventory.dto;
+
+import java.util.List;
+
+/**
+ * Cursor-paginated slice (no total count; pass nextCursor as "after" to get the next slice)
+ *
+ * @param content Items of this slice
+ * @param size Requested slice size
+ * @param nextCursor Opaque cursor of the last item, or null on the last slice
+ * @param hasNext Whether more items follow
+ * @param approximateTotal Cached approximate total (only when requested)
+ */
+public record CursorPage<T>(
+    List<T> content,
+    int size,
+    String nextCursor,
+    boolean hasNext,
+    Long approximateTotal
+) {}
@@ -0,0 +1,21 @@
+package com.skishop.inventory.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page of a faceted search with the counts of every facet value
+ *
+ * @param content Items of this page
+ * @param page Page number (0-based)
+ * @param size Requested page size
+ * @param totalElements Items matching the filters
+ * @param facets Items per value of every facet, most frequent first
+ */
+public record FacetedPage<T>(
+    List<T> content,
+    int page,
+    int size,
+    long totalElements,
+    Map<String, Map<String, Integer>> facets
+) {}
@@ -0,0 +1,27 @@
+package com.skishop.inventory.dto;
+
+import java.util.List;
+
+/**
+ * Bulk product import result
+ *
+ * @param total Data rows read
+ * @param imported Products created
+ * @param failed Rows rejected
+ * @param errors Row errors (capped; failed holds the full count)
+ */
+public record ProductImportResult(
+    long total,
+    long imported,
+    long failed,
+    List<RowError> errors
+) {
+    /**
+     * Error of one input row
+     *
+     * @param line Line number in the input (1-based, header included)
+     * @param sku SKU of the row if it could be read
+     * @param message Reason the row was rejected
+     */
+    public record RowError(long line, String sku, String message) {}
+}
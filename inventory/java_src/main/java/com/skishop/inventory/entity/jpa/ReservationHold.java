@@ -0,0 +1,119 @@
+package com.skishop.inventory.entity.jpa;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Reservation hold entity (PostgreSQL)
+ * Time-limited reservation of a product quantity for an order or cart
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@Table(name = "reservation_holds", indexes = {
+    @Index(name = "idx_reservation_holds_order_id", columnList = "orderId"),
+    @Index(name = "idx_reservation_holds_active_expires_at", columnList = "expiresAt")
+})
+public class ReservationHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    /**
+     * Order or cart ID
+     */
+    @Column(nullable = false)
+    private String orderId;
+
+    /**
+     * Product ID (refers to MongoDB Product.id)
+     */
+    @Column(nullable = false)
+    private String productId;
+
+    /**
+     * Reserved quantity
+     */
+    @Column(nullable = false)
+    private Integer quantity;
+
+    /**
+     * Hold status
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    /**
+     * Expiry date/time (an active hold is released after this)
+     */
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * Created date/time
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Updated date/time
+     */
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Pre-processing before entity creation
+     */
+    @PrePersist
+    public void prePersist() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        updatedAt = now;
+        if (status == null) {
+            status = HoldStatus.ACTIVE;
+        }
+    }
+
+    /**
+     * Pre-processing before entity update
+     */
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Hold status enum
+     */
+    public enum HoldStatus {
+        ACTIVE("Active"),
+        CONFIRMED("Confirmed"),
+        FULFILLED("Fulfilled"),
+        RELEASED("Released"),
+        EXPIRED("Expired");
+
+        private final String displayName;
+
+        HoldStatus(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
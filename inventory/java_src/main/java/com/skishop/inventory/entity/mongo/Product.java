@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
@@ -23,6 +25,13 @@ import java.util.Map;
 @Builder
 @EqualsAndHashCode(callSuper = false)
 @Document(collection = "products")
+@CompoundIndexes({
+    // Keyset pagination: sort key + _id (also used in reverse for descending order)
+    @CompoundIndex(name = "active_name_id", def = "{'active': 1, 'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "active_createdAt_id", def = "{'active': 1, 'createdAt': 1, '_id': 1}"),
+    @CompoundIndex(name = "categoryId_active_name_id", def = "{'categoryId': 1, 'active': 1, 'name': 1, '_id': 1}"),
+    @CompoundIndex(name = "categoryId_active_createdAt_id", def = "{'categoryId': 1, 'active': 1, 'createdAt': 1, '_id': 1}")
+})
 public class Product {
 
     @Id
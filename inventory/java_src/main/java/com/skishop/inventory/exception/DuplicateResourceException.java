@@ -1,9 +1,14 @@
 package com.skishop.inventory.exception;
 
+import java.io.Serial;
+
 /**
  * 重複リソース例外（sealed classを使用）
  */
 public final class DuplicateResourceException extends InventoryException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
     
     public DuplicateResourceException(String message) {
         super(message);
@@ -1,9 +1,14 @@
 package com.skishop.inventory.exception;
 
+import java.io.Serial;
+
 /**
  * Insufficient stock exception (using sealed class)
  */
 public final class InsufficientStockException extends InventoryException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
     
     public InsufficientStockException(String message) {
         super(message);
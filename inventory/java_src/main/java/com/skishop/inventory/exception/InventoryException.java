@@ -1,10 +1,16 @@
 package com.skishop.inventory.exception;
 
+import java.io.Serial;
+
 /**
  * Base exception class for inventory management (using Java 21 sealed class)
  */
 public sealed class InventoryException extends RuntimeException
-    permits ResourceNotFoundException, InsufficientStockException, DuplicateResourceException {
+    permits ResourceNotFoundException, InsufficientStockException, DuplicateResourceException,
+        ReservationTimeoutException, ReservationConflictException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
     
     public InventoryException(String message) {
         super(message);
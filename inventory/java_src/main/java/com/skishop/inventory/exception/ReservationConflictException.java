@@ -0,0 +1,24 @@
+package com.skishop.inventory.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * Reservation no longer held (its holds were already released or expired)
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public final class ReservationConflictException extends InventoryException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ReservationConflictException(String message) {
+        super(message);
+    }
+
+    public ReservationConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,24 @@
+package com.skishop.inventory.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+/**
+ * Reservation not decided in time (nothing was reserved; the request can be retried)
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public final class ReservationTimeoutException extends InventoryException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public ReservationTimeoutException(String message) {
+        super(message);
+    }
+
+    public ReservationTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
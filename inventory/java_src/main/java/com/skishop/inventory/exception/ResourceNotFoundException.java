@@ -1,9 +1,14 @@
 package com.skishop.inventory.exception;
 
+import java.io.Serial;
+
 /**
  * Resource not found exception (using sealed class)
  */
 public final class ResourceNotFoundException extends InventoryException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
     
     public ResourceNotFoundException(String message) {
         super(message);
@@ -0,0 +1,305 @@
+package com.skishop.inventory.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local journal of accepted ledger mutations
+ *
+ * <p>Records are appended to segment files ({@code ledger-<first sequence>.journal}). Each flush
+ * seals the current segment; sealed segments are deleted once their mutations are in Postgres.
+ * Every record is length-prefixed and CRC-checked so a torn write at the tail is ignored on recovery.</p>
+ *
+ * <p>Appending only writes the record. Callers wait for durability with {@link #awaitDurable} after
+ * releasing their own locks; concurrent waiters share one {@code force} (group commit).</p>
+ */
+@Slf4j
+class LedgerJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * Largest valid payload: sequence, product ID (modified UTF-8, at most 65535 bytes) and two deltas
+     */
+    private static final int MAX_PAYLOAD_LENGTH = 8 + 2 + 65535 + 4 + 4;
+
+    /**
+     * Length prefix and checksum around the payload
+     */
+    private static final int RECORD_OVERHEAD = 4 + 8;
+
+    private final Path directory;
+    private final boolean fsync;
+
+    private final Deque<LedgerMutation> pending = new ArrayDeque<>();
+    private final List<SealedSegment> sealedSegments = new ArrayList<>();
+    private FileChannel currentChannel;
+    private Path currentSegment;
+    private long nextSequence;
+
+    /**
+     * Group commit state, guarded by forceMonitor (never held while taking the journal lock)
+     */
+    private final Object forceMonitor = new Object();
+    private long durableSequence = -1;
+    private boolean forcing;
+
+    LedgerJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Read every intact record of every segment, in sequence order
+     */
+    synchronized List<LedgerMutation> readAll() {
+        List<LedgerMutation> mutations = new ArrayList<>();
+        for (Path segment : segments()) {
+            readSegment(segment, mutations);
+        }
+        return mutations;
+    }
+
+    /**
+     * Delete all segments and start a new one (after recovery has applied them)
+     */
+    synchronized void reset(long nextSequence) {
+        try {
+            for (Path segment : segments()) {
+                Files.deleteIfExists(segment);
+            }
+            this.nextSequence = nextSequence;
+            openSegment();
+            synchronized (forceMonitor) {
+                durableSequence = nextSequence - 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reset ledger journal: " + directory, e);
+        }
+    }
+
+    /**
+     * Append an accepted mutation (written, but not yet forced to disk)
+     */
+    synchronized LedgerMutation append(String productId, int quantityDelta, int reservedDelta) throws IOException {
+        LedgerMutation mutation = new LedgerMutation(nextSequence, productId, quantityDelta, reservedDelta);
+        currentChannel.write(ByteBuffer.wrap(encode(mutation)));
+        nextSequence++;
+        pending.addLast(mutation);
+        return mutation;
+    }
+
+    /**
+     * Wait until the record with the sequence and all earlier ones are on disk
+     *
+     * <p>One waiter forces the segment for every record written so far while the others wait for
+     * it, so concurrent mutations share a single fsync.</p>
+     */
+    void awaitDurable(long sequence) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        while (true) {
+            synchronized (forceMonitor) {
+                while (forcing && durableSequence < sequence) {
+                    try {
+                        forceMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting for the ledger journal");
+                    }
+                }
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                forcing = true;
+            }
+
+            long written = -1;
+            try {
+                FileChannel channel;
+                synchronized (this) {
+                    written = nextSequence - 1;
+                    channel = currentChannel;
+                }
+                try {
+                    channel.force(false);
+                } catch (ClosedChannelException e) {
+                    // Sealed by drain(), which forced it before closing
+                    written = -1;
+                }
+            } finally {
+                synchronized (forceMonitor) {
+                    forcing = false;
+                    durableSequence = Math.max(durableSequence, written);
+                    forceMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the mutations not yet flushed and seal the current segment
+     */
+    synchronized List<LedgerMutation> drain() throws IOException {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<LedgerMutation> drained = new ArrayList<>(pending);
+        pending.clear();
+
+        // Records of a sealed segment must be durable before its channel goes away
+        if (fsync) {
+            currentChannel.force(false);
+            synchronized (forceMonitor) {
+                durableSequence = Math.max(durableSequence, nextSequence - 1);
+                forceMonitor.notifyAll();
+            }
+        }
+        currentChannel.close();
+        sealedSegments.add(new SealedSegment(currentSegment, drained.get(drained.size() - 1).sequence()));
+        openSegment();
+        return drained;
+    }
+
+    /**
+     * Put back mutations whose flush failed, ahead of newer ones
+     */
+    synchronized void requeue(List<LedgerMutation> mutations) {
+        for (int i = mutations.size() - 1; i >= 0; i--) {
+            pending.addFirst(mutations.get(i));
+        }
+    }
+
+    /**
+     * Delete sealed segments whose mutations are all in Postgres
+     */
+    synchronized void deleteFlushed(long flushedSequence) {
+        Iterator<SealedSegment> iterator = sealedSegments.iterator();
+        while (iterator.hasNext()) {
+            SealedSegment segment = iterator.next();
+            if (segment.lastSequence() > flushedSequence) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segment.path());
+                iterator.remove();
+            } catch (IOException e) {
+                log.warn("Failed to delete flushed ledger journal segment: {}", segment.path(), e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (currentChannel != null) {
+            currentChannel.close();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        Files.createDirectories(directory);
+        currentSegment = directory.resolve(SEGMENT_PREFIX + String.format("%020d", nextSequence) + SEGMENT_SUFFIX);
+        currentChannel = FileChannel.open(currentSegment,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list ledger journal: " + directory, e);
+        }
+    }
+
+    private static void readSegment(Path segment, List<LedgerMutation> mutations) {
+        try (InputStream input = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(input)) {
+            long remaining = Files.size(segment);
+            while (true) {
+                int length = in.readInt();
+                remaining -= RECORD_OVERHEAD;
+                if (length <= 0 || length > MAX_PAYLOAD_LENGTH || length > remaining) {
+                    log.warn("Incomplete or invalid ledger journal record (length {}), ignoring the rest of segment: {}", length, segment);
+                    return;
+                }
+                remaining -= length;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                long checksum = in.readLong();
+                if (checksum != checksum(payload)) {
+                    log.warn("Corrupted ledger journal record, ignoring the rest of segment: {}", segment);
+                    return;
+                }
+                mutations.add(decode(payload));
+            }
+        } catch (EOFException e) {
+            // End of segment (or torn write at the tail)
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ledger journal segment: " + segment, e);
+        }
+    }
+
+    private static byte[] encode(LedgerMutation mutation) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream payload = new DataOutputStream(payloadBytes)) {
+            payload.writeLong(mutation.sequence());
+            payload.writeUTF(mutation.productId());
+            payload.writeInt(mutation.quantityDelta());
+            payload.writeInt(mutation.reservedDelta());
+        }
+        byte[] body = payloadBytes.toByteArray();
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(body.length + 12);
+        try (DataOutputStream record = new DataOutputStream(recordBytes)) {
+            record.writeInt(body.length);
+            record.write(body);
+            record.writeLong(checksum(body));
+        }
+        return recordBytes.toByteArray();
+    }
+
+    private static LedgerMutation decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            return new LedgerMutation(in.readLong(), in.readUTF(), in.readInt(), in.readInt());
+        }
+    }
+
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    private record SealedSegment(Path path, long lastSequence) {}
+}
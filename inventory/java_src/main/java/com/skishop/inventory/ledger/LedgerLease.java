@@ -0,0 +1,110 @@
+package com.skishop.inventory.ledger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ownership lease of a reservation ledger (PostgreSQL session advisory locks)
+ *
+ * <p>The ledger decides stock from memory, so each managed product must have exactly one ledger
+ * in the cluster, and each journal exactly one checkpoint writer. The lease holds one advisory lock
+ * for the ledger ID and one per managed product on a dedicated connection for the life of the
+ * ledger. Postgres releases the locks when that connection ends.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerLease {
+
+    /**
+     * Advisory lock namespaces (first key of the two-key lock)
+     */
+    private static final int LEDGER_LOCK_SPACE = 0x4c454447;
+    private static final int PRODUCT_LOCK_SPACE = 0x4c534b55;
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?, hashtext(?))";
+
+    private final DataSource dataSource;
+
+    private Connection connection;
+
+    /**
+     * Take the lease, or fail if another ledger holds the ledger ID or any of the products
+     *
+     * @throws IllegalStateException if the lease is held elsewhere
+     */
+    public synchronized void acquire(String ledgerId, Set<String> productIds) {
+        if (connection != null) {
+            return;
+        }
+        try {
+            Connection leaseConnection = dataSource.getConnection();
+            leaseConnection.setAutoCommit(true);
+            List<String> conflicts = new ArrayList<>();
+            try (PreparedStatement statement = leaseConnection.prepareStatement(TRY_LOCK_SQL)) {
+                if (!tryLock(statement, LEDGER_LOCK_SPACE, ledgerId)) {
+                    conflicts.add("ledger " + ledgerId);
+                }
+                for (String productId : productIds) {
+                    if (!tryLock(statement, PRODUCT_LOCK_SPACE, productId)) {
+                        conflicts.add(productId);
+                    }
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                // Closing the connection releases the locks taken so far
+                leaseConnection.close();
+                throw new IllegalStateException(
+                    "Reservation ledger already running on another node - Ledger ID: " + ledgerId + ", Held: " + conflicts);
+            }
+            connection = leaseConnection;
+            log.info("Reservation ledger lease acquired - Ledger ID: {}, Products: {}", ledgerId, productIds.size());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to acquire reservation ledger lease - Ledger ID: " + ledgerId, e);
+        }
+    }
+
+    /**
+     * Check that the lease connection, and with it the locks, is still alive
+     */
+    public synchronized boolean isHeld() {
+        try {
+            return connection != null && connection.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Give up the lease
+     */
+    public synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close reservation ledger lease connection", e);
+        }
+        connection = null;
+    }
+
+    private static boolean tryLock(PreparedStatement statement, int space, String key) throws SQLException {
+        statement.setInt(1, space);
+        statement.setString(2, key);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+}
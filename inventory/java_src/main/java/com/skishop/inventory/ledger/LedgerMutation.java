@@ -0,0 +1,16 @@
+package com.skishop.inventory.ledger;
+
+/**
+ * Accepted ledger mutation (journal record)
+ *
+ * @param sequence Journal sequence number
+ * @param productId Product ID
+ * @param quantityDelta Change of the inventory quantity
+ * @param reservedDelta Change of the reserved quantity
+ */
+public record LedgerMutation(
+    long sequence,
+    String productId,
+    int quantityDelta,
+    int reservedDelta
+) {}
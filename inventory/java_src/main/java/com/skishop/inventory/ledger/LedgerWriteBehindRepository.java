@@ -0,0 +1,81 @@
+package com.skishop.inventory.ledger;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Applies ledger mutations to the inventory table (PostgreSQL)
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "inventory.repository.queries", percentiles = {0.5, 0.99})
+public class LedgerWriteBehindRepository {
+
+    /**
+     * Apply net deltas and recompute the status in the same statement
+     * (SET expressions see the values before the update)
+     */
+    private static final String APPLY_DELTA_SQL = """
+        UPDATE inventory SET
+            quantity = quantity + ?,
+            reserved_quantity = reserved_quantity + ?,
+            status = CASE
+                WHEN (quantity + ?) - (reserved_quantity + ?) <= 0 THEN 'OUT_OF_STOCK'
+                WHEN (quantity + ?) - (reserved_quantity + ?) <= ? THEN 'LOW_STOCK'
+                ELSE 'IN_STOCK' END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE product_id = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    /**
+     * Get the sequence of the last mutation of the ledger applied to Postgres,
+     * creating the checkpoint of a new ledger
+     */
+    @Transactional
+    public long findLastSequence(String ledgerId) {
+        jdbcTemplate.update("""
+            INSERT INTO inventory_ledger_checkpoint (ledger_id, last_sequence) VALUES (?, 0)
+            ON CONFLICT (ledger_id) DO NOTHING
+            """, ledgerId);
+        Long lastSequence = jdbcTemplate.queryForObject(
+            "SELECT last_sequence FROM inventory_ledger_checkpoint WHERE ledger_id = ?", Long.class, ledgerId);
+        return lastSequence == null ? 0L : lastSequence;
+    }
+
+    /**
+     * Apply net deltas in one JDBC batch and advance the ledger's checkpoint in the same transaction,
+     * so a replayed journal never applies a mutation twice
+     */
+    @Transactional
+    public void apply(String ledgerId, List<ProductDelta> deltas, long lastSequence) {
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setInt(1, delta.quantityDelta());
+            ps.setInt(2, delta.reservedDelta());
+            ps.setInt(3, delta.quantityDelta());
+            ps.setInt(4, delta.reservedDelta());
+            ps.setInt(5, delta.quantityDelta());
+            ps.setInt(6, delta.reservedDelta());
+            ps.setInt(7, lowStockThreshold);
+            ps.setString(8, delta.productId());
+        });
+        jdbcTemplate.update(
+            "UPDATE inventory_ledger_checkpoint SET last_sequence = ?, updated_at = CURRENT_TIMESTAMP WHERE ledger_id = ?",
+            lastSequence, ledgerId);
+    }
+
+    /**
+     * Net change for one product
+     */
+    public record ProductDelta(String productId, int quantityDelta, int reservedDelta) {}
+}
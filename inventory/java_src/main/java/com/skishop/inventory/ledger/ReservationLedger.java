@@ -0,0 +1,400 @@
+package com.skishop.inventory.ledger;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.exception.InsufficientStockException;
+import com.skishop.inventory.exception.ResourceNotFoundException;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+import com.skishop.inventory.service.EventPublisherService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory reservation ledger with write-behind to PostgreSQL
+ *
+ * <p>For the configured high-velocity products, inventory and reserved quantities live in
+ * memory and every mutation is decided without a database round trip. Accepted mutations are
+ * appended to a local journal first, then flushed to the inventory table in batches.
+ * On startup, journal records not yet in Postgres are applied before the ledger is loaded.</p>
+ *
+ * <p>A mutation made inside a transaction becomes visible immediately. If that transaction rolls
+ * back, the inverse mutation is journaled and applied so the ledger follows the database.</p>
+ *
+ * <p>Only one node may run a ledger for a product: the ledger takes a {@link LedgerLease} on its ID
+ * and products before recovering and refuses to start if another node holds it. Requests for the
+ * managed products must be routed to that node; other nodes update the inventory table directly.
+ * If the lease is lost while running, the ledger rejects further mutations.</p>
+ */
+@Component
+@Slf4j
+public class ReservationLedger {
+
+    private static final int STRIPES = 64;
+
+    private final InventoryRepository inventoryRepository;
+    private final LedgerWriteBehindRepository writeBehindRepository;
+    private final LedgerLease lease;
+    private final EventPublisherService eventPublisherService;
+    private final boolean enabled;
+    private final String ledgerId;
+    private final Set<String> managedProductIds;
+    private final LedgerJournal journal;
+
+    /**
+     * Quantity (upper 32 bits) and reserved quantity (lower 32 bits) per product
+     */
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+    private volatile boolean leaseLost;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    public ReservationLedger(
+            InventoryRepository inventoryRepository,
+            LedgerWriteBehindRepository writeBehindRepository,
+            LedgerLease lease,
+            EventPublisherService eventPublisherService,
+            @Value("${app.inventory.reservation.ledger.enabled:false}") boolean enabled,
+            @Value("${app.inventory.reservation.ledger.id:default}") String ledgerId,
+            @Value("${app.inventory.reservation.ledger.product-ids:}") Set<String> managedProductIds,
+            @Value("${app.inventory.reservation.ledger.journal-dir:data/ledger}") String journalDir,
+            @Value("${app.inventory.reservation.ledger.fsync:true}") boolean fsync) {
+        this.inventoryRepository = inventoryRepository;
+        this.writeBehindRepository = writeBehindRepository;
+        this.lease = lease;
+        this.eventPublisherService = eventPublisherService;
+        this.enabled = enabled;
+        this.ledgerId = ledgerId;
+        this.managedProductIds = Set.copyOf(managedProductIds);
+        this.journal = new LedgerJournal(Path.of(journalDir), fsync);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Take the lease, recover from the journal and load the managed products
+     *
+     * @throws IllegalStateException if another node runs this ledger or one of its products
+     */
+    @PostConstruct
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+
+        lease.acquire(ledgerId, managedProductIds);
+        long lastSequence = writeBehindRepository.findLastSequence(ledgerId);
+        List<LedgerMutation> unflushed = journal.readAll().stream()
+            .filter(mutation -> mutation.sequence() > lastSequence)
+            .toList();
+        long nextSequence = lastSequence + 1;
+        if (!unflushed.isEmpty()) {
+            long recoveredSequence = unflushed.get(unflushed.size() - 1).sequence();
+            writeBehindRepository.apply(ledgerId, aggregate(unflushed), recoveredSequence);
+            nextSequence = recoveredSequence + 1;
+            log.info("Ledger journal replayed - Mutations: {}, Last sequence: {}", unflushed.size(), recoveredSequence);
+        }
+        journal.reset(nextSequence);
+
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(List.copyOf(managedProductIds))) {
+            counters.put(inventory.getProductId(),
+                new AtomicLong(pack(inventory.getQuantity(), inventory.getReservedQuantity())));
+        }
+        log.info("Reservation ledger loaded - Products: {}", counters.size());
+    }
+
+    /**
+     * Check if the product is managed by the ledger
+     */
+    public boolean manages(String productId) {
+        return enabled && counters.containsKey(productId);
+    }
+
+    /**
+     * Reserve stock
+     */
+    public void reserve(String productId, int quantity) {
+        if (!mutate(productId, 0, quantity)) {
+            throw new InsufficientStockException(String.format(
+                "Insufficient stock. Requested: %d, Available: %d", quantity, getAvailableQuantity(productId)));
+        }
+        eventPublisherService.publishStockReservedEvent(productId, quantity);
+    }
+
+    /**
+     * Release reserved stock
+     */
+    public void release(String productId, int quantity) {
+        if (!mutate(productId, 0, -quantity)) {
+            throw new ResourceNotFoundException("Failed to release reserved stock");
+        }
+        eventPublisherService.publishStockReleasedEvent(productId, quantity);
+    }
+
+    /**
+     * Stock in process (receiving inventory)
+     */
+    public void stockIn(String productId, int quantity) {
+        mutate(productId, quantity, 0);
+        eventPublisherService.publishStockInEvent(productId, quantity);
+    }
+
+    /**
+     * Stock out process (shipping reserved inventory)
+     */
+    public void stockOut(String productId, int quantity) {
+        stockOut(productId, quantity, quantity);
+    }
+
+    /**
+     * Stock out process (shipping inventory, of which reservedQuantity was reserved)
+     */
+    public void stockOut(String productId, int quantity, int reservedQuantity) {
+        if (!mutate(productId, -quantity, -reservedQuantity)) {
+            throw new InsufficientStockException("Insufficient reserved quantity");
+        }
+        eventPublisherService.publishStockOutEvent(productId, quantity);
+    }
+
+    /**
+     * Get inventory quantity
+     */
+    public int getQuantity(String productId) {
+        return quantity(counter(productId).get());
+    }
+
+    /**
+     * Get reserved quantity
+     */
+    public int getReservedQuantity(String productId) {
+        return reserved(counter(productId).get());
+    }
+
+    /**
+     * Get available inventory quantity
+     */
+    public int getAvailableQuantity(String productId) {
+        long state = counter(productId).get();
+        return quantity(state) - reserved(state);
+    }
+
+    /**
+     * Copy of the inventory with the quantities held by the ledger
+     */
+    public Inventory withLedgerQuantities(Inventory inventory) {
+        String productId = inventory.getProductId();
+        int quantity = getQuantity(productId);
+        int reservedQuantity = getReservedQuantity(productId);
+        return Inventory.builder()
+            .id(inventory.getId())
+            .productId(productId)
+            .quantity(quantity)
+            .reservedQuantity(reservedQuantity)
+            .locationCode(inventory.getLocationCode())
+            .status(Inventory.InventoryStatus.fromQuantity(quantity - reservedQuantity, lowStockThreshold))
+            .createdAt(inventory.getCreatedAt())
+            .updatedAt(inventory.getUpdatedAt())
+            .createdBy(inventory.getCreatedBy())
+            .updatedBy(inventory.getUpdatedBy())
+            .build();
+    }
+
+    /**
+     * Flush accepted mutations to Postgres (write-behind)
+     *
+     * <p>Also checks the lease. Mutations already accepted are still flushed after it is lost.</p>
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.reservation.ledger.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        if (!leaseLost && !lease.isHeld()) {
+            leaseLost = true;
+            log.error("Reservation ledger lease lost, rejecting mutations - Ledger ID: {}", ledgerId);
+        }
+
+        List<LedgerMutation> mutations;
+        try {
+            mutations = journal.drain();
+        } catch (IOException e) {
+            log.error("Failed to seal ledger journal segment", e);
+            return;
+        }
+        if (mutations.isEmpty()) {
+            return;
+        }
+
+        long lastSequence = mutations.get(mutations.size() - 1).sequence();
+        try {
+            writeBehindRepository.apply(ledgerId, aggregate(mutations), lastSequence);
+            journal.deleteFlushed(lastSequence);
+            log.debug("Ledger flushed - Mutations: {}, Last sequence: {}", mutations.size(), lastSequence);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush ledger, will retry - Mutations: {}", mutations.size(), e);
+            journal.requeue(mutations);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        journal.close();
+        if (enabled) {
+            lease.release();
+        }
+    }
+
+    /**
+     * Apply a mutation if the quantities stay consistent, journaling it before it becomes visible
+     *
+     * <p>The journal is forced after the stripe lock is released, so concurrent mutations share one
+     * fsync. Inside a transaction, the mutation is reversed if the transaction rolls back.</p>
+     *
+     * @return false if the mutation would make the reserved or available quantity negative
+     */
+    private boolean mutate(String productId, int quantityDelta, int reservedDelta) {
+        if (leaseLost) {
+            throw new IllegalStateException("Reservation ledger lease lost - Ledger ID: " + ledgerId);
+        }
+        AtomicLong counter = counter(productId);
+        long previous;
+        long next;
+        LedgerMutation mutation;
+        synchronized (stripe(productId)) {
+            previous = counter.get();
+            int quantity = quantity(previous) + quantityDelta;
+            int reserved = reserved(previous) + reservedDelta;
+            if (reserved < 0 || quantity < reserved) {
+                return false;
+            }
+            mutation = append(productId, quantityDelta, reservedDelta);
+            next = pack(quantity, reserved);
+            counter.set(next);
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        compensate(productId, -quantityDelta, -reservedDelta);
+                    }
+                }
+            });
+        }
+        awaitDurable(mutation);
+
+        Inventory.InventoryStatus previousStatus = status(previous);
+        Inventory.InventoryStatus nextStatus = status(next);
+        if (previousStatus != nextStatus) {
+            eventPublisherService.publishInventoryStatusChangedEvent(productId, nextStatus.name());
+        }
+        return true;
+    }
+
+    /**
+     * Reverse a mutation of a rolled back transaction
+     *
+     * <p>Applied unconditionally: the reversed mutation was accepted, so undoing it restores a state
+     * the ledger has already been in, apart from mutations accepted in between. No event is
+     * published because the events of the rolled back transaction were discarded with it.</p>
+     */
+    private void compensate(String productId, int quantityDelta, int reservedDelta) {
+        AtomicLong counter = counter(productId);
+        LedgerMutation mutation;
+        synchronized (stripe(productId)) {
+            long previous = counter.get();
+            int quantity = quantity(previous) + quantityDelta;
+            int reserved = reserved(previous) + reservedDelta;
+            mutation = append(productId, quantityDelta, reservedDelta);
+            counter.set(pack(quantity, reserved));
+            if (reserved < 0 || quantity < reserved) {
+                log.warn("Ledger compensation left inconsistent quantities - Product ID: {}, Quantity: {}, Reserved: {}",
+                    productId, quantity, reserved);
+            }
+        }
+        awaitDurable(mutation);
+        log.info("Ledger mutation rolled back - Product ID: {}, Quantity delta: {}, Reserved delta: {}",
+            productId, quantityDelta, reservedDelta);
+    }
+
+    private LedgerMutation append(String productId, int quantityDelta, int reservedDelta) {
+        try {
+            return journal.append(productId, quantityDelta, reservedDelta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to ledger journal", e);
+        }
+    }
+
+    private void awaitDurable(LedgerMutation mutation) {
+        try {
+            journal.awaitDurable(mutation.sequence());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sync ledger journal", e);
+        }
+    }
+
+    private Object stripe(String productId) {
+        return stripes[Math.floorMod(productId.hashCode(), STRIPES)];
+    }
+
+    private AtomicLong counter(String productId) {
+        AtomicLong counter = counters.get(productId);
+        if (counter == null) {
+            throw new ResourceNotFoundException("Inventory information not found: " + productId);
+        }
+        return counter;
+    }
+
+    private Inventory.InventoryStatus status(long state) {
+        return Inventory.InventoryStatus.fromQuantity(quantity(state) - reserved(state), lowStockThreshold);
+    }
+
+    /**
+     * Sum mutations into one net delta per product
+     */
+    private static List<LedgerWriteBehindRepository.ProductDelta> aggregate(List<LedgerMutation> mutations) {
+        Map<String, int[]> totals = new LinkedHashMap<>();
+        for (LedgerMutation mutation : mutations) {
+            int[] total = totals.computeIfAbsent(mutation.productId(), id -> new int[2]);
+            total[0] += mutation.quantityDelta();
+            total[1] += mutation.reservedDelta();
+        }
+        return totals.entrySet().stream()
+            .map(entry -> new LedgerWriteBehindRepository.ProductDelta(
+                entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+            .toList();
+    }
+
+    private static long pack(int quantity, int reserved) {
+        return ((long) quantity << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int quantity(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+}
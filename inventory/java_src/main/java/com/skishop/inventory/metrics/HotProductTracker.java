@@ -0,0 +1,98 @@
+package com.skishop.inventory.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hot product tracker
+ * Accumulates time spent in stock reservations per product over a window and exposes only the
+ * top K products as gauges, so the number of series stays bounded whatever the catalog size.
+ */
+@Component
+@Slf4j
+public class HotProductTracker {
+
+    private final MultiGauge hotProducts;
+    private final Counter untracked;
+    private final int topK;
+    private final int maxTracked;
+
+    /**
+     * Current window (replaced as a whole when it is published)
+     */
+    private volatile ConcurrentHashMap<String, LongAdder> window = new ConcurrentHashMap<>();
+
+    public HotProductTracker(MeterRegistry meterRegistry,
+                             @Value("${app.inventory.metrics.hot-products.top-k:10}") int topK,
+                             @Value("${app.inventory.metrics.hot-products.max-tracked:10000}") int maxTracked) {
+        this.topK = topK;
+        this.maxTracked = maxTracked;
+        this.hotProducts = MultiGauge.builder("inventory.hot.products")
+            .description("Time spent reserving stock in the last window, top products only")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.untracked = Counter.builder("inventory.hot.products.untracked")
+            .description("Reservations not tracked because the window was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Record time spent on a product
+     */
+    public void record(String productId, long nanos) {
+        ConcurrentHashMap<String, LongAdder> current = window;
+        LongAdder total = current.get(productId);
+        if (total == null) {
+            if (current.size() >= maxTracked) {
+                untracked.increment();
+                return;
+            }
+            total = current.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        total.add(nanos);
+    }
+
+    /**
+     * Close the window and publish its top products (products that dropped out are removed)
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.metrics.hot-products.window-ms:60000}")
+    public void publish() {
+        ConcurrentHashMap<String, LongAdder> closed = window;
+        window = new ConcurrentHashMap<>();
+
+        // Min-heap of the K largest totals
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        closed.forEach((productId, total) -> {
+            top.offer(Map.entry(productId, total.sum()));
+            if (top.size() > topK) {
+                top.poll();
+            }
+        });
+
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(top);
+        ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            Map.Entry<String, Long> entry = ranked.get(i);
+            double seconds = entry.getValue() / (double) TimeUnit.SECONDS.toNanos(1);
+            rows.add(MultiGauge.Row.of(Tags.of("product_id", entry.getKey(), "rank", String.valueOf(i + 1)), seconds));
+        }
+        hotProducts.register(rows, true);
+        log.debug("Hot products published - Tracked: {}, Top: {}", closed.size(), rows.size());
+    }
+}
@@ -0,0 +1,163 @@
+package com.skishop.inventory.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking Kafka publishing pipeline
+ * (a bounded queue feeds one producer thread; completion is observed through callbacks)
+ */
+@Component
+@Slf4j
+public class KafkaPublishPipeline {
+
+    private static final int MAX_DRAIN = 1024;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BlockingQueue<PendingSend> queue;
+    private final BackpressurePolicy backpressurePolicy;
+    private final long offerTimeoutMillis;
+
+    private final Timer deliveryLatency;
+    private final Counter deliveryFailures;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private Thread producerThread;
+
+    public KafkaPublishPipeline(KafkaTemplate<String, Object> kafkaTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.inventory.kafka.pipeline.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.inventory.kafka.pipeline.backpressure:BLOCK}") BackpressurePolicy backpressurePolicy,
+                                @Value("${app.inventory.kafka.pipeline.offer-timeout-ms:1000}") long offerTimeoutMillis) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.backpressurePolicy = backpressurePolicy;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+
+        this.deliveryLatency = Timer.builder("kafka.publish.latency")
+            .description("Time from queueing an event until Kafka acknowledged it")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.deliveryFailures = Counter.builder("kafka.publish.failures")
+            .description("Events Kafka did not acknowledge")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("kafka.publish.rejected")
+            .description("Events refused because the queue was full")
+            .register(meterRegistry);
+        Gauge.builder("kafka.publish.queue.depth", queue, BlockingQueue::size)
+            .description("Events waiting for the producer thread")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        producerThread = new Thread(this::run, "kafka-publisher");
+        producerThread.setDaemon(true);
+        producerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        producerThread.interrupt();
+        producerThread.join(TimeUnit.SECONDS.toMillis(10));
+        kafkaTemplate.flush();
+    }
+
+    /**
+     * Queue an event for sending
+     *
+     * @return Completes when Kafka acknowledged the event; fails when it was rejected or not delivered
+     */
+    public CompletableFuture<Void> submit(String topic, String key, Object event) {
+        PendingSend pending = new PendingSend(topic, key, event, System.nanoTime(), new CompletableFuture<>());
+        if (!running || !enqueue(pending)) {
+            rejected.increment();
+            pending.completion().completeExceptionally(
+                new RejectedExecutionException("Kafka publish queue is full"));
+        }
+        return pending.completion();
+    }
+
+    private boolean enqueue(PendingSend pending) {
+        if (backpressurePolicy == BackpressurePolicy.REJECT) {
+            return queue.offer(pending);
+        }
+        try {
+            return queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        List<PendingSend> batch = new ArrayList<>(MAX_DRAIN);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_DRAIN - 1);
+            } catch (InterruptedException e) {
+                // Shutting down: send what is left in the queue
+                queue.drainTo(batch);
+            }
+            batch.forEach(this::send);
+            batch.clear();
+        }
+        log.info("Kafka publisher stopped");
+    }
+
+    private void send(PendingSend pending) {
+        try {
+            kafkaTemplate.send(pending.topic(), pending.key(), pending.event())
+                .whenComplete((result, ex) -> complete(pending, ex));
+        } catch (Exception e) {
+            complete(pending, e);
+        }
+    }
+
+    private void complete(PendingSend pending, Throwable failure) {
+        deliveryLatency.record(System.nanoTime() - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        if (failure == null) {
+            pending.completion().complete(null);
+        } else {
+            deliveryFailures.increment();
+            pending.completion().completeExceptionally(failure);
+        }
+    }
+
+    private record PendingSend(String topic, String key, Object event, long enqueuedNanos,
+                               CompletableFuture<Void> completion) {}
+
+    /**
+     * What to do when the queue is full
+     */
+    public enum BackpressurePolicy {
+        /** Wait up to the offer timeout for space, then reject */
+        BLOCK,
+        /** Reject immediately */
+        REJECT
+    }
+}
@@ -0,0 +1,16 @@
+package com.skishop.inventory.outbox;
+
+/**
+ * Event waiting in the outbox
+ *
+ * @param ageMillis Time since the event was written (at the time it was read)
+ */
+public record OutboxRecord(
+    long id,
+    String topic,
+    String eventKey,
+    String eventType,
+    String payload,
+    int attempts,
+    long ageMillis
+) {}
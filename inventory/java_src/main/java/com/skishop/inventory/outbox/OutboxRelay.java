@@ -0,0 +1,185 @@
+package com.skishop.inventory.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skishop.inventory.service.EventPublisherService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays outbox events to Kafka (at-least-once, in write order per key)
+ *
+ * <p>A batch is claimed in a short transaction, sent without holding a transaction or lock, and
+ * settled in a second short transaction. Events of a relay that stops while sending are sent
+ * again once their claim expires.</p>
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final KafkaPublishPipeline kafkaPublishPipeline;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+    private final long backoffInitialMillis;
+    private final long backoffMaxMillis;
+
+    private final Timer relayLag;
+    private final DistributionSummary relayBatchSize;
+    private final Counter relayFailures;
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       KafkaPublishPipeline kafkaPublishPipeline,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.inventory.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.inventory.outbox.send-timeout-ms:10000}") long sendTimeoutMillis,
+                       @Value("${app.inventory.outbox.backoff.initial-ms:500}") long backoffInitialMillis,
+                       @Value("${app.inventory.outbox.backoff.max-ms:60000}") long backoffMaxMillis) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaPublishPipeline = kafkaPublishPipeline;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.backoffInitialMillis = backoffInitialMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+
+        this.relayLag = Timer.builder("outbox.relay.lag")
+            .description("Time from writing an event to the outbox until Kafka acknowledged it")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.relayBatchSize = DistributionSummary.builder("outbox.relay.batch.size")
+            .description("Events read by one relay batch")
+            .register(meterRegistry);
+        this.relayFailures = Counter.builder("outbox.relay.failures")
+            .description("Events scheduled for another attempt")
+            .register(meterRegistry);
+        Gauge.builder("outbox.relay.oldest.age", oldestAgeMillis, AtomicLong::get)
+            .description("Age in milliseconds of the oldest event in the last relay batch")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Drain due events until a batch comes back short
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.outbox.relay-interval-ms:100}")
+    public void relay() {
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxRecord> batch = transactionTemplate.execute(status -> claimBatch());
+        relayBatchSize.record(batch.size());
+        oldestAgeMillis.set(batch.isEmpty() ? 0 : batch.get(0).ageMillis());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        // Queue the whole batch before waiting (one producer thread and the idempotent producer keep same-key records in order)
+        List<CompletableFuture<?>> sends = batch.stream().map(this::send).toList();
+
+        // Per key, only the events before the first failure are done; the rest are retried in order
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        List<Long> delivered = new ArrayList<>();
+        List<OutboxRepository.Retry> retries = new ArrayList<>();
+        Set<String> failedKeys = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxRecord record = batch.get(i);
+            String error = await(sends.get(i), deadline);
+            if (error == null && !failedKeys.contains(record.eventKey())) {
+                delivered.add(record.id());
+                relayLag.record(record.ageMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                failedKeys.add(record.eventKey());
+                retries.add(new OutboxRepository.Retry(record.id(), backoffMillis(record.attempts()),
+                    error != null ? error : "Earlier event with the same key was not delivered"));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.deleteByIdIn(delivered);
+            if (!retries.isEmpty()) {
+                outboxRepository.scheduleRetry(retries);
+            }
+        });
+        if (!retries.isEmpty()) {
+            relayFailures.increment(retries.size());
+            log.warn("Outbox events not delivered - Events: {}, Keys: {}", retries.size(), failedKeys.size());
+        }
+        return batch.size();
+    }
+
+    /**
+     * Claim due events, oldest first
+     *
+     * <p>The claim outlasts the sends (each waits at most the send timeout), so no other relay
+     * takes the events or later events with the same keys until this relay settles them.</p>
+     */
+    private List<OutboxRecord> claimBatch() {
+        // Another relay is claiming; claims are serialized so each key stays in order
+        if (!outboxRepository.tryLockRelay()) {
+            return List.of();
+        }
+        List<OutboxRecord> batch = outboxRepository.lockDueBatch(batchSize);
+        outboxRepository.claim(batch.stream().map(OutboxRecord::id).toList(), 2 * sendTimeoutMillis);
+        return batch;
+    }
+
+    private CompletableFuture<?> send(OutboxRecord record) {
+        Class<?> eventClass = EventPublisherService.eventClass(record.eventType());
+        if (eventClass == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown event type: " + record.eventType()));
+        }
+        try {
+            Object event = objectMapper.readValue(record.payload(), eventClass);
+            return kafkaPublishPipeline.submit(record.topic(), record.eventKey(), event);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String await(CompletableFuture<?> send, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return String.valueOf(e.getCause());
+        } catch (TimeoutException e) {
+            return "Send timed out";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Relay interrupted";
+        }
+    }
+
+    private long backoffMillis(int attempts) {
+        return Math.min(backoffMaxMillis, backoffInitialMillis << Math.min(attempts, 20));
+    }
+}
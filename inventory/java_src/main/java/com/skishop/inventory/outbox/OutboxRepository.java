@@ -0,0 +1,137 @@
+package com.skishop.inventory.outbox;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Event outbox repository (PostgreSQL)
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "inventory.repository.queries", percentiles = {0.5, 0.99})
+public class OutboxRepository {
+
+    /**
+     * Advisory lock key held by a relay while it claims a batch
+     */
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    /**
+     * Lock due events, oldest first. An event is not due while an earlier event
+     * with the same key is waiting for a retry, which keeps each key in order.
+     */
+    private static final String LOCK_DUE_BATCH_SQL = """
+        SELECT o.id, o.topic, o.event_key, o.event_type, o.payload, o.attempts,
+               (EXTRACT(EPOCH FROM (LOCALTIMESTAMP - o.created_at)) * 1000)::bigint AS age_ms
+        FROM event_outbox o
+        WHERE o.next_attempt_at <= LOCALTIMESTAMP
+          AND NOT EXISTS (
+              SELECT 1 FROM event_outbox p
+              WHERE p.event_key = o.event_key AND p.id < o.id AND p.next_attempt_at > LOCALTIMESTAMP)
+        ORDER BY o.id
+        LIMIT ?
+        FOR UPDATE
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Write an event (joins the caller's transaction)
+     */
+    public void append(String topic, String eventKey, String eventType, String payload) {
+        jdbcTemplate.update("""
+            INSERT INTO event_outbox (topic, event_key, event_type, payload, created_at, next_attempt_at)
+            VALUES (?, ?, ?, ?, LOCALTIMESTAMP, LOCALTIMESTAMP)
+            """, topic, eventKey, eventType, payload);
+    }
+
+    /**
+     * Write events in one JDBC batch (joins the caller's transaction)
+     */
+    public void appendAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate("""
+            INSERT INTO event_outbox (topic, event_key, event_type, payload, created_at, next_attempt_at)
+            VALUES (?, ?, ?, ?, LOCALTIMESTAMP, LOCALTIMESTAMP)
+            """, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.topic());
+            ps.setString(2, event.eventKey());
+            ps.setString(3, event.eventType());
+            ps.setString(4, event.payload());
+        });
+    }
+
+    /**
+     * Try to become the only relay claiming events until the current transaction ends
+     */
+    public boolean tryLockRelay() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(?)", Boolean.class, RELAY_LOCK_KEY));
+    }
+
+    /**
+     * Lock a batch of due events in write order
+     */
+    public List<OutboxRecord> lockDueBatch(int limit) {
+        return jdbcTemplate.query(LOCK_DUE_BATCH_SQL, (rs, rowNum) -> new OutboxRecord(
+            rs.getLong("id"),
+            rs.getString("topic"),
+            rs.getString("event_key"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getInt("attempts"),
+            rs.getLong("age_ms")
+        ), limit);
+    }
+
+    /**
+     * Claim events for a relay by moving their next attempt past the time it may take to send them.
+     * Later events with the same keys are not due until the claimed events are settled or the claim expires.
+     */
+    public void claim(List<Long> ids, long claimMillis) {
+        jdbcTemplate.batchUpdate(
+            "UPDATE event_outbox SET next_attempt_at = LOCALTIMESTAMP + (? * INTERVAL '1 millisecond') WHERE id = ?",
+            ids, ids.size(), (ps, id) -> {
+                ps.setLong(1, claimMillis);
+                ps.setLong(2, id);
+            });
+    }
+
+    /**
+     * Delete delivered events
+     */
+    public void deleteByIdIn(List<Long> ids) {
+        jdbcTemplate.batchUpdate("DELETE FROM event_outbox WHERE id = ?", ids, ids.size(),
+            (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * Schedule failed events for another attempt
+     */
+    public void scheduleRetry(List<Retry> retries) {
+        jdbcTemplate.batchUpdate("""
+            UPDATE event_outbox SET
+                attempts = attempts + 1,
+                next_attempt_at = LOCALTIMESTAMP + (? * INTERVAL '1 millisecond'),
+                last_error = ?
+            WHERE id = ?
+            """, retries, retries.size(), (ps, retry) -> {
+            ps.setLong(1, retry.delayMillis());
+            ps.setString(2, retry.error());
+            ps.setLong(3, retry.id());
+        });
+    }
+
+    /**
+     * Event to write
+     */
+    public record OutboxEvent(String topic, String eventKey, String eventType, String payload) {}
+
+    /**
+     * Next attempt of one event
+     */
+    public record Retry(long id, long delayMillis, String error) {}
+}
@@ -0,0 +1,29 @@
+package com.skishop.inventory.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Effective price of a product, as of the last sale transition
+ *
+ * @param productId Product ID
+ * @param currencyCode Currency code
+ * @param regularPrice Regular price
+ * @param salePrice Sale price (null without a sale)
+ * @param saleStartDate Sale start date/time
+ * @param saleEndDate Sale end date/time
+ * @param currentPrice Current price
+ * @param currentMinorUnits Current price in minor currency units (e.g. yen, cents)
+ * @param onSale On sale flag
+ */
+public record EffectivePrice(
+    String productId,
+    String currencyCode,
+    BigDecimal regularPrice,
+    BigDecimal salePrice,
+    LocalDateTime saleStartDate,
+    LocalDateTime saleEndDate,
+    BigDecimal currentPrice,
+    long currentMinorUnits,
+    boolean onSale
+) {}
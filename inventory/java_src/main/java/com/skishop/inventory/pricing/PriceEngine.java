@@ -0,0 +1,263 @@
+package com.skishop.inventory.pricing;
+
+import com.skishop.inventory.entity.jpa.Price;
+import com.skishop.inventory.repository.jpa.PriceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory table of effective prices
+ *
+ * <p>The current price and on-sale flag of every active price are computed once and flipped by a
+ * scheduler when a sale starts or ends, so lookups are a map read without a query or a clock read.
+ * The table is loaded when the application is ready, updated when this node writes prices, and
+ * reloaded periodically to pick up changes made by other nodes.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceEngine {
+
+    private static final BigDecimal MAX_AMOUNT = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_AMOUNT = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private final PriceRepository priceRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Map<String, Entry> table = new ConcurrentHashMap<>();
+
+    /**
+     * Pending sale transitions, earliest first
+     */
+    private final ConcurrentSkipListSet<Transition> transitions = new ConcurrentSkipListSet<>(
+        Comparator.comparing(Transition::at).thenComparing(Transition::productId));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Get the effective price of a product (null without an active price)
+     */
+    public EffectivePrice find(String productId) {
+        Entry entry = table.get(productId);
+        return entry == null ? null : entry.effective();
+    }
+
+    /**
+     * Get the effective prices of multiple products (products without an active price are left out)
+     */
+    public Map<String, EffectivePrice> findByProductIds(Collection<String> productIds) {
+        Map<String, EffectivePrice> prices = new HashMap<>();
+        for (String productId : productIds) {
+            Entry entry = table.get(productId);
+            if (entry != null) {
+                prices.put(productId, entry.effective());
+            }
+        }
+        return prices;
+    }
+
+    /**
+     * Get every effective price
+     */
+    public Collection<EffectivePrice> findAll() {
+        return table.values().stream()
+            .map(Entry::effective)
+            .toList();
+    }
+
+    /**
+     * Apply written prices once the current transaction commits (immediately without one)
+     */
+    public void updateAfterCommit(List<Price> prices) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(prices);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(prices);
+            }
+        });
+    }
+
+    /**
+     * Reload every active price
+     *
+     * <p>Entries written on this node while the reload was reading are kept when they are newer.</p>
+     */
+    @Scheduled(initialDelayString = "${app.inventory.price.reload-interval-ms:300000}",
+               fixedDelayString = "${app.inventory.price.reload-interval-ms:300000}")
+    public synchronized void reload() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Map<String, Price> active = new HashMap<>();
+        for (Price price : priceRepository.findByIsActiveTrue()) {
+            active.merge(price.getProductId(), price, (first, second) -> first);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        active.values().forEach(price -> table.compute(price.getProductId(), (productId, existing) ->
+            existing != null && isNewer(existing.source(), price) ? existing : schedule(evaluate(price, now))));
+        table.entrySet().removeIf(entry -> !active.containsKey(entry.getKey())
+            && !isAfter(entry.getValue().source().getUpdatedAt(), startedAt));
+        log.info("Price engine loaded - Prices: {}, Pending transitions: {}", table.size(), transitions.size());
+        applicationEventPublisher.publishEvent(new PricesReloaded());
+    }
+
+    /**
+     * Flip prices whose sale started or ended
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.price.transition-check-ms:1000}")
+    public void applyTransitions() {
+        LocalDateTime now = LocalDateTime.now();
+        Transition due;
+        while ((due = transitions.pollFirst()) != null) {
+            if (due.at().isAfter(now)) {
+                transitions.add(due);
+                return;
+            }
+            // Transitions of replaced entries are stale and skipped
+            Entry entry = table.get(due.productId());
+            if (entry == null || !due.at().equals(entry.nextTransition())) {
+                continue;
+            }
+            Entry flipped = schedule(evaluate(entry.source(), now));
+            if (table.replace(due.productId(), entry, flipped)) {
+                applicationEventPublisher.publishEvent(new PriceChanged(due.productId(), flipped.effective()));
+            }
+        }
+    }
+
+    private void update(List<Price> prices) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Price price : prices) {
+            EffectivePrice effective = null;
+            if (Boolean.TRUE.equals(price.getIsActive())) {
+                Entry entry = schedule(evaluate(price, now));
+                table.put(price.getProductId(), entry);
+                effective = entry.effective();
+            } else {
+                table.remove(price.getProductId());
+            }
+            applicationEventPublisher.publishEvent(new PriceChanged(price.getProductId(), effective));
+        }
+        log.debug("Price engine updated - Prices: {}", prices.size());
+    }
+
+    private Entry schedule(Entry entry) {
+        if (entry.nextTransition() != null) {
+            transitions.add(new Transition(entry.nextTransition(), entry.source().getProductId()));
+        }
+        return entry;
+    }
+
+    /**
+     * Evaluate a price at the given time (same sale window as Price.getCurrentPrice)
+     */
+    static Entry evaluate(Price price, LocalDateTime now) {
+        boolean hasSale = price.getSalePrice() != null && price.getSaleStartDate() != null && price.getSaleEndDate() != null;
+        boolean onSale = hasSale && !now.isBefore(price.getSaleStartDate()) && !now.isAfter(price.getSaleEndDate());
+
+        LocalDateTime nextTransition = null;
+        if (hasSale && now.isBefore(price.getSaleStartDate())) {
+            nextTransition = price.getSaleStartDate();
+        } else if (onSale) {
+            // The sale still applies at saleEndDate itself
+            nextTransition = price.getSaleEndDate().plusNanos(1);
+        }
+
+        BigDecimal current = onSale ? price.getSalePrice() : price.getRegularPrice();
+        EffectivePrice effective = new EffectivePrice(
+            price.getProductId(),
+            price.getCurrencyCode(),
+            price.getRegularPrice(),
+            price.getSalePrice(),
+            price.getSaleStartDate(),
+            price.getSaleEndDate(),
+            current,
+            toMinorUnits(current, price.getCurrencyCode()),
+            onSale
+        );
+        return new Entry(price, effective, nextTransition);
+    }
+
+    /**
+     * Convert an amount to minor currency units (0 fraction digits for JPY, 2 for USD, ...)
+     */
+    static long toMinorUnits(BigDecimal amount, String currencyCode) {
+        return amount == null ? 0L : toMinorUnits(amount, currencyCode, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Convert an amount to minor currency units with the given rounding
+     * (saturates at the long range, so any user-supplied bound is usable)
+     *
+     * @throws IllegalArgumentException When the currency code is unknown
+     */
+    public static long toMinorUnits(BigDecimal amount, String currencyCode, RoundingMode roundingMode) {
+        int fractionDigits = Math.max(Currency.getInstance(currencyCode).getDefaultFractionDigits(), 0);
+        if (amount.compareTo(MAX_AMOUNT) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (amount.compareTo(MIN_AMOUNT) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        // Below a tenth of a minor unit every amount rounds the same; avoids rescaling huge exponents
+        if (amount.signum() != 0 && amount.precision() - amount.scale() < -fractionDigits) {
+            amount = BigDecimal.valueOf(amount.signum(), fractionDigits + 2);
+        }
+        BigInteger minorUnits = amount.setScale(fractionDigits, roundingMode).unscaledValue();
+        if (minorUnits.bitLength() >= Long.SIZE) {
+            return minorUnits.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return minorUnits.longValue();
+    }
+
+    private static boolean isNewer(Price existing, Price loaded) {
+        return isAfter(existing.getUpdatedAt(), loaded.getUpdatedAt());
+    }
+
+    private static boolean isAfter(LocalDateTime value, LocalDateTime other) {
+        return value != null && other != null && value.isAfter(other);
+    }
+
+    /**
+     * Table entry: the price row, its evaluation and when the evaluation changes next
+     */
+    record Entry(Price source, EffectivePrice effective, LocalDateTime nextTransition) {}
+
+    private record Transition(LocalDateTime at, String productId) {}
+
+    /**
+     * Effective price of a product changed (price is null when the product no longer has an active price)
+     */
+    public record PriceChanged(String productId, EffectivePrice price) {}
+
+    /**
+     * Every price was reloaded
+     */
+    public record PricesReloaded() {}
+}
@@ -0,0 +1,251 @@
+package com.skishop.inventory.pricing;
+
+import com.skishop.inventory.entity.mongo.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Sorted in-memory index of effective prices for price-range filtering
+ *
+ * <p>Active products with an active price are kept in arrays sorted by price in minor units, one
+ * per currency and one per currency and category, so a range is two binary searches. Changes since
+ * the last build are kept in a small overlay that queries merge in; the arrays are rebuilt when the
+ * overlay grows too large, when the price engine reloads, and when products are reloaded.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PriceRangeIndex {
+
+    private static final int MAX_OVERLAY_SIZE = 1024;
+    private static final String NO_CATEGORY = "";
+
+    private final PriceEngine priceEngine;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Category of every active product (products without a category map to NO_CATEGORY)
+     */
+    private final Map<String, String> categoryByProduct = new HashMap<>();
+
+    private volatile State state = new State(Map.of(), Map.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadProducts();
+    }
+
+    /**
+     * Find product IDs whose effective price is within the range, cheapest first
+     *
+     * @param categoryId Category ID (all categories when null)
+     */
+    public List<String> findProductIds(String currencyCode, long minMinorUnits, long maxMinorUnits, String categoryId) {
+        State current = state;
+        SortedPrices prices = current.segments().get(new Segment(currencyCode, categoryId));
+        List<String> baseIds = prices == null ? List.of() : prices.range(minMinorUnits, maxMinorUnits);
+        if (current.overlay().isEmpty()) {
+            return baseIds;
+        }
+
+        // Merge changes made since the arrays were built
+        List<Item> hits = new ArrayList<>();
+        for (String productId : baseIds) {
+            if (!current.overlay().containsKey(productId)) {
+                hits.add(prices.item(productId));
+            }
+        }
+        current.overlay().forEach((productId, item) -> {
+            if (item != null && item.matches(currencyCode, minMinorUnits, maxMinorUnits, categoryId)) {
+                hits.add(item);
+            }
+        });
+        hits.sort(Item.ORDER);
+        return hits.stream().map(Item::productId).toList();
+    }
+
+    /**
+     * Add or update a product (category changes and new products)
+     */
+    public void upsertProduct(Product product) {
+        upsertProducts(List.of(product));
+    }
+
+    /**
+     * Add or update products in one step (bulk imports)
+     */
+    public synchronized void upsertProducts(List<Product> products) {
+        for (Product product : products) {
+            if (Boolean.TRUE.equals(product.getActive())) {
+                categoryByProduct.put(product.getId(), categoryKey(product.getCategoryId()));
+            } else {
+                categoryByProduct.remove(product.getId());
+            }
+        }
+        changed(products.stream().map(Product::getId).toList());
+    }
+
+    @EventListener
+    public synchronized void onPriceChanged(PriceEngine.PriceChanged event) {
+        changed(List.of(event.productId()));
+    }
+
+    @EventListener
+    public synchronized void onPricesReloaded(PriceEngine.PricesReloaded event) {
+        rebuild();
+    }
+
+    /**
+     * Reload the categories of active products (picks up changes made by other nodes)
+     */
+    @Scheduled(initialDelayString = "${app.inventory.price.range-index.reload-interval-ms:300000}",
+               fixedDelayString = "${app.inventory.price.range-index.reload-interval-ms:300000}")
+    public synchronized void reloadProducts() {
+        Query query = new Query(Criteria.where("active").is(true));
+        query.fields().include("categoryId");
+        categoryByProduct.clear();
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(product -> categoryByProduct.put(product.getId(), categoryKey(product.getCategoryId())));
+        }
+        rebuild();
+    }
+
+    private void changed(List<String> productIds) {
+        Map<String, Item> overlay = new HashMap<>(state.overlay());
+        for (String productId : productIds) {
+            overlay.put(productId, item(productId, priceEngine.find(productId)));
+        }
+        if (overlay.size() > MAX_OVERLAY_SIZE) {
+            rebuild();
+            return;
+        }
+        state = new State(state.segments(), Collections.unmodifiableMap(overlay));
+    }
+
+    private void rebuild() {
+        Map<Segment, List<Item>> items = new HashMap<>();
+        for (EffectivePrice price : priceEngine.findAll()) {
+            Item item = item(price.productId(), price);
+            if (item != null) {
+                items.computeIfAbsent(new Segment(item.currencyCode(), null), key -> new ArrayList<>()).add(item);
+                items.computeIfAbsent(new Segment(item.currencyCode(), item.categoryId()), key -> new ArrayList<>()).add(item);
+            }
+        }
+        Map<Segment, SortedPrices> segments = new HashMap<>();
+        items.forEach((segment, segmentItems) -> segments.put(segment, SortedPrices.of(segmentItems)));
+        state = new State(segments, Map.of());
+        log.debug("Price range index rebuilt - Segments: {}", segments.size());
+    }
+
+    /**
+     * Indexed item of a product (null when the product is inactive or has no active price)
+     */
+    private Item item(String productId, EffectivePrice price) {
+        String categoryId = categoryByProduct.get(productId);
+        if (price == null || categoryId == null) {
+            return null;
+        }
+        return new Item(productId, price.currencyCode(), price.currentMinorUnits(),
+            categoryId.equals(NO_CATEGORY) ? null : categoryId);
+    }
+
+    private static String categoryKey(String categoryId) {
+        return categoryId == null ? NO_CATEGORY : categoryId;
+    }
+
+    private record State(Map<Segment, SortedPrices> segments, Map<String, Item> overlay) {}
+
+    /**
+     * Currency and category (null for all categories)
+     */
+    private record Segment(String currencyCode, String categoryId) {}
+
+    private record Item(String productId, String currencyCode, long minorUnits, String categoryId) {
+
+        static final Comparator<Item> ORDER = Comparator.comparingLong(Item::minorUnits).thenComparing(Item::productId);
+
+        boolean matches(String currencyCode, long minMinorUnits, long maxMinorUnits, String categoryId) {
+            return this.currencyCode.equals(currencyCode)
+                && minorUnits >= minMinorUnits && minorUnits <= maxMinorUnits
+                && (categoryId == null || categoryId.equals(this.categoryId));
+        }
+    }
+
+    /**
+     * Prices sorted ascending with the product IDs in the same order
+     */
+    private static final class SortedPrices {
+
+        private final long[] minorUnits;
+        private final String[] productIds;
+        private final Map<String, Item> items;
+
+        private SortedPrices(long[] minorUnits, String[] productIds, Map<String, Item> items) {
+            this.minorUnits = minorUnits;
+            this.productIds = productIds;
+            this.items = items;
+        }
+
+        static SortedPrices of(List<Item> items) {
+            items.sort(Item.ORDER);
+            long[] minorUnits = new long[items.size()];
+            String[] productIds = new String[items.size()];
+            Map<String, Item> byProductId = new HashMap<>(items.size() * 2);
+            for (int i = 0; i < items.size(); i++) {
+                minorUnits[i] = items.get(i).minorUnits();
+                productIds[i] = items.get(i).productId();
+                byProductId.put(productIds[i], items.get(i));
+            }
+            return new SortedPrices(minorUnits, productIds, byProductId);
+        }
+
+        /**
+         * Product IDs priced within [min, max] (a view, not a copy)
+         */
+        List<String> range(long min, long max) {
+            if (min > max) {
+                return List.of();
+            }
+            int from = lowerBound(min);
+            int to = max == Long.MAX_VALUE ? minorUnits.length : lowerBound(max + 1);
+            return Collections.unmodifiableList(Arrays.asList(productIds).subList(from, to));
+        }
+
+        Item item(String productId) {
+            return items.get(productId);
+        }
+
+        /**
+         * First index whose price is at least the value
+         */
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = minorUnits.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (minorUnits[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.skishop.inventory.repository.jdbc;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.entity.jpa.Price;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Batched price and inventory inserts for catalog imports (PostgreSQL)
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "inventory.repository.queries", percentiles = {0.5, 0.99})
+public class CatalogBulkRepository {
+
+    private static final String INSERT_PRICE_SQL = """
+        INSERT INTO prices (product_id, regular_price, sale_price, sale_start_date, sale_end_date,
+                            currency_code, is_active, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_INVENTORY_SQL = """
+        INSERT INTO inventory (product_id, quantity, reserved_quantity, location_code, status, created_at, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert prices in one JDBC batch
+     */
+    public void insertPrices(List<Price> prices) {
+        jdbcTemplate.batchUpdate(INSERT_PRICE_SQL, prices, prices.size(), (ps, price) -> {
+            ps.setString(1, price.getProductId());
+            ps.setBigDecimal(2, price.getRegularPrice());
+            ps.setBigDecimal(3, price.getSalePrice());
+            ps.setTimestamp(4, toTimestamp(price.getSaleStartDate()));
+            ps.setTimestamp(5, toTimestamp(price.getSaleEndDate()));
+            ps.setString(6, price.getCurrencyCode());
+            ps.setBoolean(7, price.getIsActive());
+            ps.setTimestamp(8, toTimestamp(price.getCreatedAt()));
+            ps.setTimestamp(9, toTimestamp(price.getUpdatedAt()));
+        });
+    }
+
+    /**
+     * Insert inventory rows in one JDBC batch
+     */
+    public void insertInventories(List<Inventory> inventories) {
+        jdbcTemplate.batchUpdate(INSERT_INVENTORY_SQL, inventories, inventories.size(), (ps, inventory) -> {
+            ps.setString(1, inventory.getProductId());
+            ps.setInt(2, inventory.getQuantity());
+            ps.setInt(3, inventory.getReservedQuantity());
+            ps.setString(4, inventory.getLocationCode());
+            ps.setString(5, inventory.getStatus().name());
+            ps.setTimestamp(6, toTimestamp(inventory.getCreatedAt()));
+            ps.setTimestamp(7, toTimestamp(inventory.getUpdatedAt()));
+        });
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+}
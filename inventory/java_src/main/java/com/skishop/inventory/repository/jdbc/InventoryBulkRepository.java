@@ -0,0 +1,148 @@
+package com.skishop.inventory.repository.jdbc;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Set-based inventory updates (PostgreSQL)
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "inventory.repository.queries", percentiles = {0.5, 0.99})
+public class InventoryBulkRepository {
+
+    /**
+     * Apply deltas to many products in one statement and recompute the status in the same statement
+     * (SET expressions see the values before the update). Rows whose reserved quantity would become
+     * negative, or exceed the inventory quantity, are left unchanged.
+     */
+    private static final String APPLY_DELTAS_SQL = """
+        UPDATE inventory AS i SET
+            quantity = i.quantity + d.quantity_delta,
+            reserved_quantity = i.reserved_quantity + d.reserved_delta,
+            status = CASE
+                WHEN (i.quantity + d.quantity_delta) - (i.reserved_quantity + d.reserved_delta) <= 0 THEN 'OUT_OF_STOCK'
+                WHEN (i.quantity + d.quantity_delta) - (i.reserved_quantity + d.reserved_delta) <= ? THEN 'LOW_STOCK'
+                ELSE 'IN_STOCK' END,
+            updated_at = CURRENT_TIMESTAMP
+        FROM unnest(?::varchar[], ?::int[], ?::int[]) AS d(product_id, quantity_delta, reserved_delta)
+        WHERE i.product_id = d.product_id
+          AND i.reserved_quantity + d.reserved_delta >= 0
+          AND i.quantity + d.quantity_delta >= i.reserved_quantity + d.reserved_delta
+        RETURNING i.product_id, i.location_code, i.quantity, i.reserved_quantity, i.status
+        """;
+
+    /**
+     * Same as APPLY_DELTAS_SQL, but each delta only applies to the product's row at the given location
+     */
+    private static final String APPLY_LOCATED_DELTAS_SQL = """
+        UPDATE inventory AS i SET
+            quantity = i.quantity + d.quantity_delta,
+            reserved_quantity = i.reserved_quantity + d.reserved_delta,
+            status = CASE
+                WHEN (i.quantity + d.quantity_delta) - (i.reserved_quantity + d.reserved_delta) <= 0 THEN 'OUT_OF_STOCK'
+                WHEN (i.quantity + d.quantity_delta) - (i.reserved_quantity + d.reserved_delta) <= ? THEN 'LOW_STOCK'
+                ELSE 'IN_STOCK' END,
+            updated_at = CURRENT_TIMESTAMP
+        FROM unnest(?::varchar[], ?::varchar[], ?::int[], ?::int[]) AS d(product_id, location_code, quantity_delta, reserved_delta)
+        WHERE i.product_id = d.product_id
+          AND i.location_code = d.location_code
+          AND i.reserved_quantity + d.reserved_delta >= 0
+          AND i.quantity + d.quantity_delta >= i.reserved_quantity + d.reserved_delta
+        RETURNING i.product_id, i.location_code, i.quantity, i.reserved_quantity, i.status
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    /**
+     * Apply quantity and reserved quantity deltas to multiple products
+     *
+     * @return Updated rows (products whose delta was rejected are not included)
+     */
+    public List<InventoryRow> applyDeltas(List<InventoryDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(APPLY_DELTAS_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setInt(1, lowStockThreshold);
+            ps.setArray(2, createArray(connection, "varchar",
+                deltas.stream().map(InventoryDelta::productId).toArray()));
+            ps.setArray(3, createArray(connection, "int4",
+                deltas.stream().map(InventoryDelta::quantityDelta).toArray()));
+            ps.setArray(4, createArray(connection, "int4",
+                deltas.stream().map(InventoryDelta::reservedDelta).toArray()));
+        }, InventoryBulkRepository::mapRow);
+    }
+
+    /**
+     * Apply deltas to multiple products, each at a given location
+     *
+     * @return Updated rows (deltas that were rejected or matched no row are not included)
+     */
+    public List<InventoryRow> applyLocatedDeltas(List<LocatedDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(APPLY_LOCATED_DELTAS_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setInt(1, lowStockThreshold);
+            ps.setArray(2, createArray(connection, "varchar",
+                deltas.stream().map(LocatedDelta::productId).toArray()));
+            ps.setArray(3, createArray(connection, "varchar",
+                deltas.stream().map(LocatedDelta::locationCode).toArray()));
+            ps.setArray(4, createArray(connection, "int4",
+                deltas.stream().map(LocatedDelta::quantityDelta).toArray()));
+            ps.setArray(5, createArray(connection, "int4",
+                deltas.stream().map(LocatedDelta::reservedDelta).toArray()));
+        }, InventoryBulkRepository::mapRow);
+    }
+
+    private static InventoryRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new InventoryRow(
+            rs.getString("product_id"),
+            rs.getString("location_code"),
+            rs.getInt("quantity"),
+            rs.getInt("reserved_quantity"),
+            Inventory.InventoryStatus.valueOf(rs.getString("status"))
+        );
+    }
+
+    private static Array createArray(Connection connection, String typeName, Object[] elements) throws SQLException {
+        return connection.createArrayOf(typeName, elements);
+    }
+
+    /**
+     * Change to apply to one product
+     */
+    public record InventoryDelta(String productId, int quantityDelta, int reservedDelta) {}
+
+    /**
+     * Change to apply to one product at one location
+     */
+    public record LocatedDelta(String productId, String locationCode, int quantityDelta, int reservedDelta) {}
+
+    /**
+     * Inventory values after an update
+     */
+    public record InventoryRow(String productId, String locationCode, int quantity, int reservedQuantity, Inventory.InventoryStatus status) {
+
+        public int availableQuantity() {
+            return quantity - reservedQuantity;
+        }
+    }
+}
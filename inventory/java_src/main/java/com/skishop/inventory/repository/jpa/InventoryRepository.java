@@ -4,11 +4,13 @@ import com.skishop.inventory.entity.jpa.Inventory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,6 +36,14 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
      */
     List<Inventory> findByProductIdIn(List<String> productIds);
 
+    /**
+     * Find inventory by multiple product IDs and lock the rows, in product ID order
+     * (a deterministic lock order prevents deadlocks between concurrent batches)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.productId IN :productIds ORDER BY i.productId")
+    List<Inventory> findByProductIdInForUpdate(@Param("productIds") List<String> productIds);
+
     /**
      * Find inventory by location code
      */
@@ -0,0 +1,57 @@
+package com.skishop.inventory.repository.jpa;
+
+import com.skishop.inventory.entity.jpa.ReservationHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reservation hold repository (PostgreSQL)
+ */
+@Repository
+public interface ReservationHoldRepository extends JpaRepository<ReservationHold, UUID> {
+
+    /**
+     * Find and lock holds of an order by status
+     * (waits for a sweeper holding the rows, then sees their new status)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ReservationHold> findByOrderIdAndStatusIn(String orderId, Collection<ReservationHold.HoldStatus> statuses);
+
+    /**
+     * Find and lock holds of an order for a product by status, oldest first
+     * (waits for a sweeper holding the rows, then sees their new status)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ReservationHold> findByOrderIdAndProductIdAndStatusInOrderByExpiresAtAsc(
+        String orderId, String productId, Collection<ReservationHold.HoldStatus> statuses);
+
+    /**
+     * Check whether an order ever held a product, in any status
+     */
+    boolean existsByOrderIdAndProductId(String orderId, String productId);
+
+    /**
+     * Lock a chunk of expired active holds, oldest first
+     * (uses the partial index on expires_at; rows locked by another node are skipped)
+     */
+    @Query(value = "SELECT * FROM reservation_holds WHERE status = 'ACTIVE' AND expires_at <= :now " +
+                   "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ReservationHold> findExpiredForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Update status of multiple holds
+     */
+    @Modifying
+    @Query("UPDATE ReservationHold h SET h.status = :status, h.updatedAt = CURRENT_TIMESTAMP WHERE h.id IN :ids")
+    int updateStatusByIdIn(@Param("ids") Collection<UUID> ids, @Param("status") ReservationHold.HoldStatus status);
+}
@@ -54,10 +54,4 @@ public interface CategoryRepository extends MongoRepository<Category, String> {
      * Check if child categories exist
      */
     boolean existsByParentIdAndActiveTrue(String parentId);
-
-    /**
-     * Get parent category and all its child categories
-     */
-    @Query("{'path': {$regex: ?0}, 'active': true}")
-    List<Category> findCategoryHierarchy(String parentPath);
 }
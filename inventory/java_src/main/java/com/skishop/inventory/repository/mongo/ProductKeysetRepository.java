@@ -0,0 +1,138 @@
+package com.skishop.inventory.repository.mongo;
+
+import com.skishop.inventory.entity.mongo.Product;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination over active products (MongoDB)
+ *
+ * <p>Pages continue from the last seen (sort key, _id) pair instead of skipping documents,
+ * using the compound indexes declared on {@link Product}, so every page costs the same.</p>
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "inventory.repository.queries", percentiles = {0.5, 0.99})
+public class ProductKeysetRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Find active products after the cursor position
+     *
+     * @param categoryId Category ID (all categories when null)
+     * @param after Position to continue from (first page when null)
+     */
+    public List<Product> findActiveAfter(String categoryId, SortKey sortKey, Sort.Direction direction,
+                                         Cursor after, int limit) {
+        Criteria filter = categoryId == null
+            ? Criteria.where("active").is(true)
+            : Criteria.where("categoryId").is(categoryId).and("active").is(true);
+        Query query = new Query(filter);
+
+        if (after != null) {
+            Object value = sortKey.parse(after.value());
+            boolean ascending = direction.isAscending();
+            query.addCriteria(new Criteria().orOperator(
+                ascending ? Criteria.where(sortKey.field()).gt(value) : Criteria.where(sortKey.field()).lt(value),
+                new Criteria().andOperator(
+                    Criteria.where(sortKey.field()).is(value),
+                    ascending ? Criteria.where("id").gt(after.id()) : Criteria.where("id").lt(after.id()))
+            ));
+        }
+
+        query.with(Sort.by(direction, sortKey.field(), "id"));
+        query.limit(limit);
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    /**
+     * Sort keys backed by a compound index with _id
+     */
+    public enum SortKey {
+        NAME("name", Product::getName, value -> value),
+        CREATED_AT("createdAt", Product::getCreatedAt, LocalDateTime::parse);
+
+        private final String field;
+        private final Function<Product, Object> extractor;
+        private final Function<String, Object> parser;
+
+        SortKey(String field, Function<Product, Object> extractor, Function<String, Object> parser) {
+            this.field = field;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        public String field() {
+            return field;
+        }
+
+        /**
+         * Resolve the sort key of a request parameter ("name" or "createdAt")
+         */
+        public static SortKey fromField(String field) {
+            for (SortKey key : values()) {
+                if (key.field.equalsIgnoreCase(field)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort key: " + field);
+        }
+
+        String valueOf(Product product) {
+            return String.valueOf(extractor.apply(product));
+        }
+
+        Object parse(String value) {
+            return parser.apply(value);
+        }
+    }
+
+    /**
+     * Position after a product in a sort order
+     */
+    public record Cursor(SortKey sortKey, Sort.Direction direction, String value, String id) {
+
+        private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+        private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+        public static Cursor after(Product product, SortKey sortKey, Sort.Direction direction) {
+            return new Cursor(sortKey, direction, sortKey.valueOf(product), product.getId());
+        }
+
+        /**
+         * Encode as an opaque URL-safe token
+         */
+        public String encode() {
+            String raw = sortKey.name() + '\n' + direction.name() + '\n' + id + '\n' + value;
+            return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Decode a token
+         *
+         * @throws IllegalArgumentException if the token is malformed
+         */
+        public static Cursor decode(String token) {
+            try {
+                String[] parts = new String(DECODER.decode(token), StandardCharsets.UTF_8).split("\n", 4);
+                SortKey sortKey = SortKey.valueOf(parts[0]);
+                sortKey.parse(parts[3]);
+                return new Cursor(sortKey, Sort.Direction.valueOf(parts[1]), parts[3], parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+    }
+}
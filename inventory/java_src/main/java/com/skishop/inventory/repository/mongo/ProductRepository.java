@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,12 @@ public interface ProductRepository extends MongoRepository<Product, String> {
      */
     Optional<Product> findBySku(String sku);
 
+    /**
+     * Find products by SKUs (only the SKU is loaded)
+     */
+    @Query(value = "{'sku': {$in: ?0}}", fields = "{'sku': 1}")
+    List<Product> findSkusBySkuIn(Collection<String> skus);
+
     /**
      * Find products by category ID
      */
@@ -31,6 +38,16 @@ public interface ProductRepository extends MongoRepository<Product, String> {
      */
     Page<Product> findByActiveTrue(Pageable pageable);
 
+    /**
+     * Count active products
+     */
+    long countByActiveTrue();
+
+    /**
+     * Count active products in a category
+     */
+    long countByCategoryIdAndActiveTrue(String categoryId);
+
     /**
      * Find products by brand
      */
@@ -47,26 +64,6 @@ public interface ProductRepository extends MongoRepository<Product, String> {
      */
     Page<Product> findByTagsInAndActiveTrue(List<String> tags, Pageable pageable);
 
-    /**
-     * Composite search (name, description, brand, tags) - Uses Java 21 text block
-     */
-    @Query("""
-           {
-               $and: [
-                   {'active': true},
-                   {
-                       $or: [
-                           {'name': {$regex: ?0, $options: 'i'}},
-                           {'description': {$regex: ?0, $options: 'i'}},
-                           {'brand': {$regex: ?0, $options: 'i'}},
-                           {'tags': {$in: [?0]}}
-                       ]
-                   }
-               ]
-           }
-           """)
-    Page<Product> searchProducts(String keyword, Pageable pageable);
-
     /**
      * Composite search by category and keyword - Uses Java 21 text block
      */
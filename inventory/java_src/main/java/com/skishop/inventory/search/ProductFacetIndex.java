@@ -0,0 +1,509 @@
+package com.skishop.inventory.search;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.entity.mongo.Product;
+import com.skishop.inventory.ledger.ReservationLedger;
+import com.skishop.inventory.pricing.EffectivePrice;
+import com.skishop.inventory.pricing.PriceEngine;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+import com.skishop.inventory.service.EventPublisherService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-process facet index over active products
+ *
+ * <p>Every product gets a dense integer ordinal, and every brand, category, tag, price band and
+ * inventory status keeps a compressed bitmap of the ordinals that have it. Filters resolve through
+ * bitmap unions (values of one facet) and intersections (across facets), and facet counts are
+ * bitmap intersection cardinalities. Like {@link ProductSearchIndex}, the index is built when the
+ * application is ready, updated from product, price and inventory status changes on this node, and
+ * rebuilt periodically to pick up changes made by other nodes.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final Set<Inventory.InventoryStatus> IN_STOCK_STATUSES =
+        Set.of(Inventory.InventoryStatus.IN_STOCK, Inventory.InventoryStatus.LOW_STOCK);
+
+    private final MongoTemplate mongoTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final PriceEngine priceEngine;
+    private final ReservationLedger reservationLedger;
+
+    @Value("${app.inventory.facets.price-bands:10000,30000,50000,100000}")
+    private BigDecimal[] priceBandBounds;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+
+    /**
+     * Changes made while a rebuild is reading products (replayed onto the rebuilt index)
+     */
+    private List<Consumer<Index>> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the index from MongoDB, the price engine and inventory, and swap it in
+     *
+     * <p>Active products are read from one cursor in ID order; prices and statuses are looked up per chunk.</p>
+     */
+    @Scheduled(initialDelayString = "${app.inventory.facets.rebuild-interval-ms:300000}",
+               fixedDelayString = "${app.inventory.facets.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        withWriteLock(() -> changesDuringRebuild = new ArrayList<>());
+
+        Index rebuilt = new Index();
+        Query query = new Query(Criteria.where("active").is(true))
+            .with(Sort.by("id"))
+            .cursorBatchSize(REBUILD_BATCH_SIZE);
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            Iterator<Product> iterator = products.iterator();
+            List<Product> chunk = new ArrayList<>(REBUILD_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == REBUILD_BATCH_SIZE || !iterator.hasNext()) {
+                    addAll(rebuilt, chunk);
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild product facet index; keeping the current index", e);
+            withWriteLock(() -> changesDuringRebuild = null);
+            return;
+        }
+
+        withWriteLock(() -> {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            index = rebuilt;
+        });
+        log.info("Product facet index rebuilt - Products: {}", rebuilt.products.getCardinality());
+    }
+
+    /**
+     * Add or replace a product (inactive products are removed)
+     *
+     * @param status Inventory status of the product, or null to keep the indexed status
+     */
+    public void upsert(Product product, Inventory.InventoryStatus status) {
+        String priceBand = priceBand(priceEngine.find(product.getId()));
+        apply(target -> {
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                target.remove(product.getId());
+                return;
+            }
+            FacetValues current = target.get(product.getId());
+            String indexedStatus = status != null ? status.name() : current == null ? null : current.status();
+            target.put(product.getId(), values(product, priceBand, indexedStatus));
+        });
+    }
+
+    /**
+     * Remove a product
+     */
+    public void remove(String productId) {
+        apply(target -> target.remove(productId));
+    }
+
+    /**
+     * Move a product to its new price band
+     */
+    @EventListener
+    public void onPriceChanged(PriceEngine.PriceChanged event) {
+        String priceBand = priceBand(event.price());
+        apply(target -> target.update(event.productId(), values -> values.withPriceBand(priceBand)));
+    }
+
+    /**
+     * Recompute the price bands of all products after a full price reload
+     */
+    @EventListener
+    public void onPricesReloaded(PriceEngine.PricesReloaded event) {
+        apply(target -> target.productIds().forEach(productId -> {
+            String priceBand = priceBand(priceEngine.find(productId));
+            target.update(productId, values -> values.withPriceBand(priceBand));
+        }));
+    }
+
+    /**
+     * Move a product to its new inventory status (rolled-back changes never arrive)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryStatusChange(EventPublisherService.InventoryStatusChange change) {
+        apply(target -> target.update(change.productId(), values -> values.withStatus(change.status())));
+    }
+
+    /**
+     * Find products matching the selections and count every facet value
+     *
+     * <p>Values selected within one facet are alternatives, selections of different facets must all
+     * match. The counts of a facet are computed with the selections of all other facets applied, so
+     * they tell how many products each alternative value would add.</p>
+     *
+     * @param selections Selected values per facet (facets without values are not filtered)
+     */
+    public FacetResult search(Map<Facet, ? extends Collection<String>> selections) {
+        lock.readLock().lock();
+        try {
+            return index.search(selections);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find products of a category that are in stock (in stock or low stock), in ordinal order
+     */
+    public List<String> findInStock(String categoryId) {
+        lock.readLock().lock();
+        try {
+            return index.findInStock(categoryId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Labels of the configured price bands, cheapest first
+     */
+    public List<String> priceBands() {
+        List<String> labels = new ArrayList<>(priceBandBounds.length + 1);
+        for (int i = 0; i <= priceBandBounds.length; i++) {
+            labels.add(priceBandLabel(i));
+        }
+        return labels;
+    }
+
+    private void apply(Consumer<Index> change) {
+        withWriteLock(() -> {
+            change.accept(index);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Inventory status per product (the most available location wins; the ledger is authoritative for the products it manages)
+     */
+    private void addAll(Index target, List<Product> products) {
+        List<String> productIds = products.stream().map(Product::getId).toList();
+        Map<String, EffectivePrice> prices = priceEngine.findByProductIds(productIds);
+        Map<String, String> statuses = findStatuses(productIds);
+        for (Product product : products) {
+            target.put(product.getId(), values(product,
+                priceBand(prices.get(product.getId())), statuses.get(product.getId())));
+        }
+    }
+
+    private Map<String, String> findStatuses(List<String> productIds) {
+        Map<String, Inventory.InventoryStatus> statuses = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(productIds)) {
+            Inventory.InventoryStatus status = reservationLedger.manages(inventory.getProductId())
+                ? Inventory.InventoryStatus.fromQuantity(
+                    reservationLedger.getAvailableQuantity(inventory.getProductId()), lowStockThreshold)
+                : inventory.getStatus();
+            statuses.merge(inventory.getProductId(), status,
+                (first, second) -> first.ordinal() <= second.ordinal() ? first : second);
+        }
+        return statuses.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().name()));
+    }
+
+    private static FacetValues values(Product product, String priceBand, String status) {
+        return new FacetValues(
+            product.getBrand(),
+            product.getCategoryId(),
+            product.getTags() == null ? Set.of() : Set.copyOf(product.getTags()),
+            priceBand,
+            status
+        );
+    }
+
+    /**
+     * Band of the current price (bands are bounded by the configured amounts, in the price's own currency)
+     */
+    private String priceBand(EffectivePrice price) {
+        if (price == null || price.currentPrice() == null) {
+            return null;
+        }
+        int band = 0;
+        while (band < priceBandBounds.length && price.currentPrice().compareTo(priceBandBounds[band]) >= 0) {
+            band++;
+        }
+        return priceBandLabel(band);
+    }
+
+    private String priceBandLabel(int band) {
+        String lower = band == 0 ? "0" : priceBandBounds[band - 1].toPlainString();
+        String upper = band == priceBandBounds.length ? "" : priceBandBounds[band].toPlainString();
+        return lower + "-" + upper;
+    }
+
+    /**
+     * Facets a product can be filtered and counted by
+     */
+    public enum Facet {
+        BRAND,
+        CATEGORY,
+        TAG,
+        PRICE_BAND,
+        STATUS
+    }
+
+    /**
+     * Search result
+     *
+     * @param productIds Matching product IDs in ordinal order
+     * @param counts Products per value of every facet
+     */
+    public record FacetResult(List<String> productIds, Map<Facet, Map<String, Integer>> counts) {}
+
+    /**
+     * Facet values of one product
+     */
+    private record FacetValues(String brand, String categoryId, Set<String> tags, String priceBand, String status) {
+
+        FacetValues withPriceBand(String priceBand) {
+            return new FacetValues(brand, categoryId, tags, priceBand, status);
+        }
+
+        FacetValues withStatus(String status) {
+            return new FacetValues(brand, categoryId, tags, priceBand, status);
+        }
+
+        Collection<String> get(Facet facet) {
+            return switch (facet) {
+                case BRAND -> brand == null ? Set.of() : Set.of(brand);
+                case CATEGORY -> categoryId == null ? Set.of() : Set.of(categoryId);
+                case TAG -> tags;
+                case PRICE_BAND -> priceBand == null ? Set.of() : Set.of(priceBand);
+                case STATUS -> status == null ? Set.of() : Set.of(status);
+            };
+        }
+    }
+
+    /**
+     * Ordinals and bitmaps
+     */
+    private static final class Index {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> productIds = new ArrayList<>();
+        private final List<FacetValues> values = new ArrayList<>();
+
+        /**
+         * Ordinals of removed products, reused before new ones are handed out so ordinals stay dense
+         */
+        private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+        private final RoaringBitmap products = new RoaringBitmap();
+        private final Map<Facet, Map<String, RoaringBitmap>> bitmaps = new EnumMap<>(Facet.class);
+
+        Index() {
+            for (Facet facet : Facet.values()) {
+                bitmaps.put(facet, new HashMap<>());
+            }
+        }
+
+        FacetValues get(String productId) {
+            Integer ordinal = ordinals.get(productId);
+            return ordinal == null ? null : values.get(ordinal);
+        }
+
+        Collection<String> productIds() {
+            return List.copyOf(ordinals.keySet());
+        }
+
+        void put(String productId, FacetValues productValues) {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal == null) {
+                ordinal = freeOrdinals.isEmpty() ? productIds.size() : freeOrdinals.pop();
+                ordinals.put(productId, ordinal);
+                if (ordinal == productIds.size()) {
+                    productIds.add(productId);
+                    values.add(null);
+                } else {
+                    productIds.set(ordinal, productId);
+                }
+                products.add(ordinal);
+            }
+            FacetValues previous = values.set(ordinal, productValues);
+            for (Facet facet : Facet.values()) {
+                Collection<String> previousValues = previous == null ? Set.of() : previous.get(facet);
+                Collection<String> nextValues = productValues.get(facet);
+                for (String value : previousValues) {
+                    if (!nextValues.contains(value)) {
+                        clear(facet, value, ordinal);
+                    }
+                }
+                for (String value : nextValues) {
+                    bitmaps.get(facet).computeIfAbsent(value, key -> new RoaringBitmap()).add(ordinal);
+                }
+            }
+        }
+
+        /**
+         * Replace the values of an indexed product (products not in the index are ignored)
+         */
+        void update(String productId, UnaryOperator<FacetValues> change) {
+            FacetValues current = get(productId);
+            if (current != null) {
+                put(productId, change.apply(current));
+            }
+        }
+
+        void remove(String productId) {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal == null) {
+                return;
+            }
+            FacetValues previous = values.set(ordinal, null);
+            productIds.set(ordinal, null);
+            for (Facet facet : Facet.values()) {
+                previous.get(facet).forEach(value -> clear(facet, value, ordinal));
+            }
+            products.remove(ordinal);
+            freeOrdinals.push(ordinal);
+        }
+
+        FacetResult search(Map<Facet, ? extends Collection<String>> selections) {
+            // Union of the selected values per facet
+            Map<Facet, RoaringBitmap> filters = new EnumMap<>(Facet.class);
+            selections.forEach((facet, selected) -> {
+                if (selected != null && !selected.isEmpty()) {
+                    RoaringBitmap union = new RoaringBitmap();
+                    for (String value : selected) {
+                        RoaringBitmap bitmap = bitmaps.get(facet).get(value);
+                        if (bitmap != null) {
+                            union.or(bitmap);
+                        }
+                    }
+                    filters.put(facet, union);
+                }
+            });
+
+            RoaringBitmap matches = intersect(filters, null);
+            List<String> matchedIds = toProductIds(matches);
+
+            Map<Facet, Map<String, Integer>> counts = new EnumMap<>(Facet.class);
+            for (Facet facet : Facet.values()) {
+                RoaringBitmap others = filters.containsKey(facet) ? intersect(filters, facet) : matches;
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                bitmaps.get(facet).forEach((value, bitmap) -> {
+                    int count = RoaringBitmap.andCardinality(bitmap, others);
+                    if (count > 0) {
+                        facetCounts.put(value, count);
+                    }
+                });
+                counts.put(facet, sortByCount(facetCounts));
+            }
+            return new FacetResult(matchedIds, counts);
+        }
+
+        List<String> findInStock(String categoryId) {
+            RoaringBitmap category = bitmaps.get(Facet.CATEGORY).get(categoryId);
+            if (category == null) {
+                return List.of();
+            }
+            RoaringBitmap inStock = new RoaringBitmap();
+            for (Inventory.InventoryStatus status : IN_STOCK_STATUSES) {
+                RoaringBitmap bitmap = bitmaps.get(Facet.STATUS).get(status.name());
+                if (bitmap != null) {
+                    inStock.or(bitmap);
+                }
+            }
+            inStock.and(category);
+            return toProductIds(inStock);
+        }
+
+        private List<String> toProductIds(RoaringBitmap bitmap) {
+            List<String> ids = new ArrayList<>(bitmap.getCardinality());
+            for (int ordinal : bitmap.toArray()) {
+                ids.add(productIds.get(ordinal));
+            }
+            return ids;
+        }
+
+        /**
+         * Products matching every filter except the excluded facet
+         */
+        private RoaringBitmap intersect(Map<Facet, RoaringBitmap> filters, Facet excluded) {
+            RoaringBitmap result = products.clone();
+            filters.forEach((facet, filter) -> {
+                if (facet != excluded) {
+                    result.and(filter);
+                }
+            });
+            return result;
+        }
+
+        private void clear(Facet facet, String value, int ordinal) {
+            RoaringBitmap bitmap = bitmaps.get(facet).get(value);
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.get(facet).remove(value);
+            }
+        }
+
+        /**
+         * Most frequent values first (ties by value)
+         */
+        private static Map<String, Integer> sortByCount(Map<String, Integer> counts) {
+            return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (first, second) -> first, LinkedHashMap::new));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.skishop.inventory.search;
+
+import com.skishop.inventory.entity.mongo.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over active products, ranked with BM25
+ *
+ * <p>Name, brand, tags and description are indexed with field weights. Every query term
+ * also matches indexed terms it is a prefix of ("boot" finds "boots"). The index is built
+ * when the application is ready, updated when this node changes a product, and rebuilt
+ * periodically to pick up changes made by other nodes.</p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float BRAND_WEIGHT = 2.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+
+    /**
+     * Changes made while a rebuild is reading products (replayed onto the rebuilt index)
+     */
+    private List<Consumer<Index>> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the index from MongoDB and swap it in
+     *
+     * <p>Active products are read from one cursor in ID order, so the read is linear in the catalog size.</p>
+     */
+    @Scheduled(initialDelayString = "${app.inventory.search.rebuild-interval-ms:300000}",
+               fixedDelayString = "${app.inventory.search.rebuild-interval-ms:300000}")
+    public synchronized void rebuild() {
+        withWriteLock(() -> changesDuringRebuild = new ArrayList<>());
+
+        Index rebuilt = new Index();
+        Query query = new Query(Criteria.where("active").is(true))
+            .with(Sort.by("id"))
+            .cursorBatchSize(REBUILD_BATCH_SIZE);
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            products.forEach(rebuilt::add);
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild product search index; keeping the current index", e);
+            withWriteLock(() -> changesDuringRebuild = null);
+            return;
+        }
+
+        withWriteLock(() -> {
+            changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+            changesDuringRebuild = null;
+            index = rebuilt;
+        });
+        log.info("Product search index rebuilt - Products: {}, Terms: {}", rebuilt.documents.size(), rebuilt.postings.size());
+    }
+
+    /**
+     * Add or replace a product (inactive products are removed)
+     */
+    public void upsert(Product product) {
+        apply(target -> {
+            if (Boolean.TRUE.equals(product.getActive())) {
+                target.add(product);
+            } else {
+                target.remove(product.getId());
+            }
+        });
+    }
+
+    /**
+     * Remove a product
+     */
+    public void remove(String productId) {
+        apply(target -> target.remove(productId));
+    }
+
+    /**
+     * Search products
+     *
+     * @return Matching product IDs, best match first
+     */
+    public List<String> search(String query) {
+        List<String> queryTerms = List.copyOf(new LinkedHashSet<>(SearchTokenizer.tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(queryTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Index> change) {
+        withWriteLock(() -> {
+            change.accept(index);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        });
+    }
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Postings and document statistics
+     */
+    private static final class Index {
+
+        /**
+         * Term -> (product ID -> weighted term frequency), sorted for prefix lookups
+         */
+        private final TreeMap<String, Map<String, Float>> postings = new TreeMap<>();
+        private final Map<String, IndexedDocument> documents = new HashMap<>();
+        private double totalLength;
+
+        void add(Product product) {
+            remove(product.getId());
+
+            Map<String, Float> frequencies = new HashMap<>();
+            float length = addField(frequencies, product.getName(), NAME_WEIGHT)
+                + addField(frequencies, product.getBrand(), BRAND_WEIGHT)
+                + addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+            if (product.getTags() != null) {
+                for (String tag : product.getTags()) {
+                    length += addField(frequencies, tag, TAG_WEIGHT);
+                }
+            }
+
+            frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(product.getId(), frequency));
+            documents.put(product.getId(), new IndexedDocument(length, frequencies.keySet()));
+            totalLength += length;
+        }
+
+        void remove(String productId) {
+            IndexedDocument document = documents.remove(productId);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms()) {
+                Map<String, Float> posting = postings.get(term);
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= document.length();
+        }
+
+        List<String> search(List<String> queryTerms) {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = totalLength / documentCount;
+
+            Map<String, Double> scores = new HashMap<>();
+            for (String queryTerm : queryTerms) {
+                // Best expansion of this query term per product, so "boot" is not counted twice for "boot boots"
+                Map<String, Double> best = new HashMap<>();
+                for (Map.Entry<String, Map<String, Float>> posting
+                        : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).entrySet()) {
+                    int documentFrequency = posting.getValue().size();
+                    double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                    posting.getValue().forEach((productId, frequency) -> {
+                        double norm = K1 * (1 - B + B * documents.get(productId).length() / averageLength);
+                        double score = idf * frequency * (K1 + 1) / (frequency + norm);
+                        best.merge(productId, score, Math::max);
+                    });
+                }
+                best.forEach((productId, score) -> scores.merge(productId, score, Double::sum));
+            }
+
+            return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        }
+
+        private static float addField(Map<String, Float> frequencies, String text, float weight) {
+            List<String> terms = SearchTokenizer.tokenize(text);
+            terms.forEach(term -> frequencies.merge(term, weight, Float::sum));
+            return terms.size() * weight;
+        }
+    }
+
+    private record IndexedDocument(float length, Set<String> terms) {}
+}
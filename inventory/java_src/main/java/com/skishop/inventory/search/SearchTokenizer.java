@@ -0,0 +1,64 @@
+package com.skishop.inventory.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into normalized search terms
+ *
+ * <p>Text is NFKC-normalized (full-width and half-width forms become the same term) and
+ * lower-cased, then split on anything that is not a letter or digit. Runs of Japanese or
+ * Chinese characters have no spaces, so they are indexed as overlapping character bigrams.</p>
+ */
+public final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        for (String run : normalized.split("[^\\p{L}\\p{N}]+")) {
+            // Split mixed runs such as "スキー板160cm" where the script changes
+            int start = 0;
+            while (start < run.length()) {
+                boolean cjk = isCjk(run.codePointAt(start));
+                int end = start;
+                while (end < run.length() && isCjk(run.codePointAt(end)) == cjk) {
+                    end += Character.charCount(run.codePointAt(end));
+                }
+                String segment = run.substring(start, end);
+                if (cjk) {
+                    addBigrams(segment, terms);
+                } else {
+                    terms.add(segment);
+                }
+                start = end;
+            }
+        }
+        return terms;
+    }
+
+    private static void addBigrams(String run, List<String> terms) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1) {
+            terms.add(run);
+            return;
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA;
+    }
+}
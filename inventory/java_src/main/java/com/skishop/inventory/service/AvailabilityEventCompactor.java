@@ -0,0 +1,124 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.ledger.ReservationLedger;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Merges the stock changes of a product within a window into one availability changed event
+ * (raw per-operation events are published as before)
+ */
+@Component
+@Slf4j
+public class AvailabilityEventCompactor {
+
+    private final InventoryRepository inventoryRepository;
+    private final ReservationLedger reservationLedger;
+    private final EventPublisherService eventPublisherService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    /**
+     * Net change per product in the current window
+     */
+    private final ConcurrentMap<String, NetChange> pending = new ConcurrentHashMap<>();
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    public AvailabilityEventCompactor(InventoryRepository inventoryRepository,
+                                      ReservationLedger reservationLedger,
+                                      EventPublisherService eventPublisherService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.inventory.events.compaction.enabled:false}") boolean enabled) {
+        this.inventoryRepository = inventoryRepository;
+        this.reservationLedger = reservationLedger;
+        this.eventPublisherService = eventPublisherService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Add a committed stock change to the current window (rolled-back changes never arrive)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChange(EventPublisherService.StockChange change) {
+        if (!enabled) {
+            return;
+        }
+        pending.merge(change.productId(),
+            new NetChange(change.quantityDelta(), change.reservedDelta(), 1),
+            NetChange::plus);
+    }
+
+    /**
+     * Publish one event per product changed in the window, carrying the values after the window
+     */
+    @Scheduled(fixedRateString = "${app.inventory.events.compaction.window-ms:1000}")
+    public void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+
+        // Changes merged after their product was removed start the next window
+        List<String> productIds = new ArrayList<>(pending.keySet());
+        List<String> flushed = new ArrayList<>(productIds.size());
+        List<NetChange> changes = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            NetChange change = pending.remove(productId);
+            if (change != null) {
+                flushed.add(productId);
+                changes.add(change);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Inventory> inventories = inventoryRepository.findByProductIdIn(flushed).stream()
+                .collect(Collectors.toMap(Inventory::getProductId, inventory -> inventory, (first, second) -> first));
+            for (int i = 0; i < flushed.size(); i++) {
+                publish(flushed.get(i), changes.get(i), inventories.get(flushed.get(i)));
+            }
+        });
+        log.debug("Availability changes published - Products: {}", flushed.size());
+    }
+
+    private void publish(String productId, NetChange change, Inventory inventory) {
+        int quantity;
+        int reservedQuantity;
+        if (reservationLedger.manages(productId)) {
+            quantity = reservationLedger.getQuantity(productId);
+            reservedQuantity = reservationLedger.getReservedQuantity(productId);
+        } else if (inventory != null) {
+            quantity = inventory.getQuantity();
+            reservedQuantity = inventory.getReservedQuantity();
+        } else {
+            return;
+        }
+        Inventory.InventoryStatus status = Inventory.InventoryStatus.fromQuantity(quantity - reservedQuantity, lowStockThreshold);
+        eventPublisherService.publishAvailabilityChangedEvent(new EventPublisherService.AvailabilityChangedEvent(
+            productId, change.quantityDelta(), change.reservedDelta(), change.changes(),
+            quantity, reservedQuantity, quantity - reservedQuantity, status.name()));
+    }
+
+    private record NetChange(int quantityDelta, int reservedDelta, int changes) {
+
+        NetChange plus(NetChange other) {
+            return new NetChange(quantityDelta + other.quantityDelta, reservedDelta + other.reservedDelta,
+                changes + other.changes);
+        }
+    }
+}
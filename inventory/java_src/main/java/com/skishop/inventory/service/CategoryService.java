@@ -1,7 +1,7 @@
 package com.skishop.inventory.service;
 
+import com.skishop.inventory.cache.CacheDependencies;
 import com.skishop.inventory.dto.CategoryDTO;
-import com.skishop.inventory.dto.ProductDTO;
 import com.skishop.inventory.dto.request.CategoryCreateRequest;
 import com.skishop.inventory.dto.request.CategoryUpdateRequest;
 import com.skishop.inventory.entity.mongo.Category;
@@ -9,16 +9,23 @@ import com.skishop.inventory.repository.mongo.CategoryRepository;
 import com.skishop.inventory.mapper.CategoryMapper;
 import com.skishop.inventory.exception.ResourceNotFoundException;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Category Service
@@ -27,21 +34,30 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
+@Timed(value = "inventory.service", percentiles = {0.5, 0.99})
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ProductViewInvalidator productViewInvalidator;
+
+    /**
+     * Snapshot of the active category tree (replaced as a whole, never modified)
+     */
+    private volatile CategoryTreeSnapshot snapshot;
+
+    /**
+     * Builds started so far, and the build the current snapshot came from (guarded by this)
+     */
+    private final AtomicLong snapshotBuilds = new AtomicLong();
+    private long snapshotBuild;
 
     /**
      * Get all categories
      */
-    @Cacheable(value = "categories")
     public List<CategoryDTO> findAll() {
         log.debug("Get all categories");
-        List<Category> categories = categoryRepository.findByActiveTrueOrderByPathAsc();
-        return categories.stream()
-            .map(categoryMapper::toDTO)
-            .toList();
+        return snapshot().findAll();
     }
 
     /**
@@ -59,25 +75,13 @@ public class CategoryService {
      */
     public CategoryDTO getCategoryById(String id) {
         log.debug("Get category by ID: {}", id);
-        Category category = categoryRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + id));
-        return categoryMapper.toDTO(category);
-    }
-
-    /**
-     * Get products by category
-     */
-    public Page<ProductDTO> getProductsByCategory(String categoryId, Pageable pageable, boolean includeInactive) {
-        log.debug("Get products by category: categoryId={}, includeInactive={}", categoryId, includeInactive);
-        // Mock implementation
-        return Page.empty();
+        return findById(id);
     }
 
     /**
      * Create category (from request)
      */
     @Transactional
-    @CacheEvict(value = {"categories", "rootCategories"}, allEntries = true)
     public CategoryDTO createCategory(CategoryCreateRequest request) {
         log.info("Start creating category - Name: {}", request.name());
         
@@ -104,7 +108,6 @@ public class CategoryService {
      * Create category
      */
     @Transactional
-    @CacheEvict(value = {"categories", "rootCategories", "childCategories", "categoryHierarchy"}, allEntries = true)
     public CategoryDTO create(CategoryDTO categoryDTO) {
         log.info("Start creating category - Name: {}", categoryDTO.name());
 
@@ -123,6 +126,7 @@ public class CategoryService {
 
         category.prePersist();
         category = categoryRepository.save(category);
+        refreshSnapshotAfterCommit();
 
         log.info("Category creation completed - ID: {}, Name: {}", category.getId(), category.getName());
         return categoryMapper.toDTO(category);
@@ -132,7 +136,6 @@ public class CategoryService {
      * Update category
      */
     @Transactional
-    @CacheEvict(value = {"categories", "rootCategories"}, allEntries = true)
     public CategoryDTO updateCategory(String id, CategoryUpdateRequest request) {
         log.info("Start updating category - ID: {}, Name: {}", id, request.name());
         
@@ -145,6 +148,8 @@ public class CategoryService {
         existingCategory.setParentId(request.parentId());
         
         Category savedCategory = categoryRepository.save(existingCategory);
+        refreshSnapshotAfterCommit();
+        productViewInvalidator.invalidate(List.of(CacheDependencies.category(id)));
         return categoryMapper.toDTO(savedCategory);
     }
 
@@ -152,7 +157,6 @@ public class CategoryService {
      * Delete category
      */
     @Transactional
-    @CacheEvict(value = {"categories", "rootCategories"}, allEntries = true)
     public void deleteCategory(String id) {
         log.info("Delete category - ID: {}", id);
         
@@ -162,71 +166,131 @@ public class CategoryService {
         // Logical delete
         category.setActive(false);
         categoryRepository.save(category);
+        refreshSnapshotAfterCommit();
+        productViewInvalidator.invalidate(List.of(CacheDependencies.category(id)));
         log.info("Category deletion completed - ID: {}", id);
     }
 
     /**
      * Get category details
      */
-    @Cacheable(value = "category", key = "#id")
     public CategoryDTO findById(String id) {
         log.debug("Get category details - ID: {}", id);
-        Category category = categoryRepository.findById(id)
+        CategoryDTO category = snapshot().findById(id);
+        if (category != null) {
+            return category;
+        }
+
+        // Inactive categories are not in the snapshot
+        Category inactive = categoryRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Category not found: " + id));
-        
-        return enrichCategoryWithChildren(category);
+        return CategoryTreeSnapshot.withChildren(categoryMapper.toDTO(inactive), snapshot().findByParentId(id));
+    }
+
+    /**
+     * Get details for multiple categories in batch (keyed by category ID)
+     */
+    public Map<String, CategoryDTO> findByIds(Collection<String> ids) {
+        log.debug("Get multiple categories - IDs: {}", ids);
+        CategoryTreeSnapshot tree = snapshot();
+        Map<String, CategoryDTO> categories = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            CategoryDTO category = tree.findById(id);
+            if (category != null) {
+                categories.put(id, category);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        // Inactive categories are not in the snapshot
+        if (!missing.isEmpty()) {
+            categoryRepository.findAllById(missing).forEach(category -> categories.put(category.getId(),
+                CategoryTreeSnapshot.withChildren(categoryMapper.toDTO(category), tree.findByParentId(category.getId()))));
+        }
+        return categories;
     }
 
     /**
      * Get child categories
      */
-    @Cacheable(value = "childCategories", key = "#parentId")
     public List<CategoryDTO> findByParentId(String parentId) {
         log.debug("Get child categories - Parent ID: {}", parentId);
-        List<Category> categories = categoryRepository.findByParentIdAndActiveTrueOrderByName(parentId);
-        return categories.stream()
-            .map(categoryMapper::toDTO)
-            .toList();
+        return snapshot().findByParentId(parentId);
+    }
+
+    /**
+     * Get category by path
+     */
+    public CategoryDTO findByPath(String path) {
+        log.debug("Get category by path - Path: {}", path);
+        CategoryDTO category = snapshot().findByPath(path);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category not found: " + path);
+        }
+        return category;
     }
 
     /**
-     * Get category hierarchy
+     * Get category hierarchy (categories whose path starts with the given path)
      */
-    @Cacheable(value = "categoryHierarchy", key = "#parentPath")
     public List<CategoryDTO> findCategoryHierarchy(String parentPath) {
         log.debug("Get category hierarchy - Path: {}", parentPath);
-        List<Category> categories = categoryRepository.findCategoryHierarchy("^" + parentPath);
-        return categories.stream()
-            .map(categoryMapper::toDTO)
-            .toList();
+        return snapshot().findByPathPrefix(parentPath);
     }
 
     /**
-     * Enrich category with child category information
+     * Rebuild the category tree snapshot from MongoDB and swap it in
+     * (also runs periodically to pick up changes made by other nodes)
+     *
+     * <p>Refreshes may overlap. A build that started earlier read older data, so it is discarded if a
+     * build started after it has already been swapped in.</p>
      */
-    private CategoryDTO enrichCategoryWithChildren(Category category) {
-        CategoryDTO dto = categoryMapper.toDTO(category);
-        
-        // Get child categories
-        List<Category> children = categoryRepository.findByParentIdAndActiveTrueOrderByName(category.getId());
-        List<CategoryDTO> childrenDTOs = children.stream()
+    @Scheduled(fixedDelayString = "${app.inventory.category.snapshot-refresh-ms:60000}")
+    public void refreshSnapshot() {
+        long build = snapshotBuilds.incrementAndGet();
+        List<CategoryDTO> categories = categoryRepository.findByActiveTrueOrderByPathAsc().stream()
             .map(categoryMapper::toDTO)
             .toList();
-        
-        // Create new DTO including child categories
-        return new CategoryDTO(
-            dto.id(),
-            dto.name(),
-            dto.description(),
-            dto.parentId(),
-            dto.parent(),
-            childrenDTOs,
-            dto.level(),
-            dto.path(),
-            dto.active(),
-            dto.createdAt(),
-            dto.updatedAt(),
-            dto.productCount()
-        );
+        CategoryTreeSnapshot rebuilt = new CategoryTreeSnapshot(categories);
+        synchronized (this) {
+            if (build < snapshotBuild) {
+                log.debug("Category tree snapshot discarded, a newer build is in place - Build: {}", build);
+                return;
+            }
+            snapshot = rebuilt;
+            snapshotBuild = build;
+        }
+        log.debug("Category tree snapshot rebuilt - Categories: {}", categories.size());
+    }
+
+    private CategoryTreeSnapshot snapshot() {
+        CategoryTreeSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refreshSnapshot();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Rebuild the snapshot once the current transaction commits (immediately without one)
+     */
+    private void refreshSnapshotAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshSnapshot();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshSnapshot();
+            }
+        });
     }
 }
@@ -0,0 +1,135 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.dto.CategoryDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable tree of active categories, indexed by ID, path and parent
+ *
+ * <p>Every DTO and list is built once, so lookups return shared instances and
+ * subtree queries return a view of the path-sorted list.</p>
+ */
+final class CategoryTreeSnapshot {
+
+    static final CategoryTreeSnapshot EMPTY = new CategoryTreeSnapshot(List.of());
+
+    /**
+     * Categories without children, sorted by path (subtrees are contiguous ranges)
+     */
+    private final List<CategoryDTO> sortedByPath;
+    private final String[] paths;
+
+    /**
+     * Categories with their children
+     */
+    private final Map<String, CategoryDTO> byId;
+    private final Map<String, CategoryDTO> byPath;
+    private final Map<String, List<CategoryDTO>> childrenByParentId;
+    private final List<CategoryDTO> roots;
+
+    CategoryTreeSnapshot(List<CategoryDTO> categories) {
+        this.sortedByPath = categories.stream()
+            .sorted(Comparator.comparing(CategoryDTO::path, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .toList();
+        this.paths = sortedByPath.stream().map(CategoryDTO::path).toArray(String[]::new);
+
+        Map<String, List<CategoryDTO>> children = new HashMap<>();
+        List<CategoryDTO> rootList = new ArrayList<>();
+        for (CategoryDTO category : sortedByPath) {
+            if (category.isRoot()) {
+                rootList.add(category);
+            } else {
+                children.computeIfAbsent(category.parentId(), key -> new ArrayList<>()).add(category);
+            }
+        }
+        Comparator<CategoryDTO> byName = Comparator.comparing(CategoryDTO::name, Comparator.nullsFirst(Comparator.naturalOrder()));
+        Map<String, List<CategoryDTO>> sortedChildren = new HashMap<>();
+        children.forEach((parentId, list) -> sortedChildren.put(parentId, list.stream().sorted(byName).toList()));
+        this.childrenByParentId = Map.copyOf(sortedChildren);
+        this.roots = rootList.stream().sorted(byName).toList();
+
+        Map<String, CategoryDTO> idIndex = new HashMap<>();
+        Map<String, CategoryDTO> pathIndex = new HashMap<>();
+        for (CategoryDTO category : sortedByPath) {
+            CategoryDTO withChildren = withChildren(category, childrenByParentId.getOrDefault(category.id(), List.of()));
+            idIndex.put(category.id(), withChildren);
+            if (category.path() != null) {
+                pathIndex.put(category.path(), withChildren);
+            }
+        }
+        this.byId = Map.copyOf(idIndex);
+        this.byPath = Map.copyOf(pathIndex);
+    }
+
+    /**
+     * All categories sorted by path
+     */
+    List<CategoryDTO> findAll() {
+        return sortedByPath;
+    }
+
+    /**
+     * Category with children, or null when it is not an active category
+     */
+    CategoryDTO findById(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * Category with children, or null when no active category has the path
+     */
+    CategoryDTO findByPath(String path) {
+        return path == null ? null : byPath.get(path);
+    }
+
+    /**
+     * Child categories sorted by name
+     */
+    List<CategoryDTO> findByParentId(String parentId) {
+        return parentId == null ? roots : childrenByParentId.getOrDefault(parentId, List.of());
+    }
+
+    /**
+     * Categories whose path starts with the given prefix, sorted by path
+     */
+    List<CategoryDTO> findByPathPrefix(String pathPrefix) {
+        int from = lowerBound(pathPrefix);
+        int to = lowerBound(pathPrefix + Character.MAX_VALUE);
+        return sortedByPath.subList(from, to);
+    }
+
+    private int lowerBound(String path) {
+        int index = Arrays.binarySearch(paths, path, Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Step back over duplicate paths
+        while (index > 0 && path.equals(paths[index - 1])) {
+            index--;
+        }
+        return index;
+    }
+
+    static CategoryDTO withChildren(CategoryDTO dto, List<CategoryDTO> children) {
+        return new CategoryDTO(
+            dto.id(),
+            dto.name(),
+            dto.description(),
+            dto.parentId(),
+            dto.parent(),
+            children,
+            dto.level(),
+            dto.path(),
+            dto.active(),
+            dto.createdAt(),
+            dto.updatedAt(),
+            dto.productCount()
+        );
+    }
+}
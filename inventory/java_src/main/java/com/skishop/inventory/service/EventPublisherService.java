@@ -1,103 +1,207 @@
 package com.skishop.inventory.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skishop.inventory.outbox.OutboxRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 /**
- * Event Publishing Service
+ * Event Publishing Service (events are written to the transactional outbox and relayed to Kafka)
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "inventory.service", percentiles = {0.5, 0.99})
 public class EventPublisherService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    /**
+     * Event classes written to the outbox, by the event type stored with them
+     */
+    private static final Map<String, Class<?>> EVENT_TYPES = Stream.of(
+            ProductCreatedEvent.class,
+            StockReservedEvent.class,
+            OrderStockReservedEvent.class,
+            StockReleasedEvent.class,
+            StockInEvent.class,
+            StockOutEvent.class,
+            InventoryStatusChangedEvent.class,
+            StockMovementsEvent.class,
+            AvailabilityChangedEvent.class)
+        .collect(Collectors.toUnmodifiableMap(Class::getName, Function.identity()));
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Publish product created event
      */
     public void publishProductCreatedEvent(String productId) {
-        try {
-            ProductCreatedEvent event = new ProductCreatedEvent(productId);
-            kafkaTemplate.send("inventory.product.created", productId, event);
-            log.info("Product created event published - Product ID: {}", productId);
-        } catch (Exception e) {
-            log.error("Failed to publish product created event - Product ID: {}", productId, e);
-        }
+        ProductCreatedEvent event = new ProductCreatedEvent(productId);
+        append("inventory.product.created", productId, event);
+        log.debug("Product created event queued - Product ID: {}", productId);
+    }
+
+    /**
+     * Publish product created events for many products with one batched outbox write
+     */
+    public void publishProductCreatedEvents(List<String> productIds) {
+        List<OutboxRepository.OutboxEvent> events = productIds.stream()
+            .map(productId -> toOutboxEvent("inventory.product.created", productId, new ProductCreatedEvent(productId)))
+            .toList();
+        outboxRepository.appendAll(events);
+        log.debug("Product created events queued - Products: {}", productIds.size());
     }
 
     /**
      * Publish stock reserved event
      */
     public void publishStockReservedEvent(String productId, Integer quantity) {
-        try {
-            StockReservedEvent event = new StockReservedEvent(productId, quantity);
-            kafkaTemplate.send("inventory.stock.reserved", productId, event);
-            log.info("Stock reserved event published - Product ID: {}, Quantity: {}", productId, quantity);
-        } catch (Exception e) {
-            log.error("Failed to publish stock reserved event - Product ID: {}, Quantity: {}", productId, quantity, e);
-        }
+        StockReservedEvent event = new StockReservedEvent(productId, quantity);
+        append("inventory.stock.reserved", productId, event);
+        recordStockChange(productId, 0, quantity);
+        log.debug("Stock reserved event queued - Product ID: {}, Quantity: {}", productId, quantity);
+    }
+
+    /**
+     * Publish order stock reserved event (all lines of one order)
+     */
+    public void publishOrderStockReservedEvent(String orderId, Map<String, Integer> quantities) {
+        List<ReservedLine> lines = quantities.entrySet().stream()
+            .map(entry -> new ReservedLine(entry.getKey(), entry.getValue()))
+            .toList();
+        OrderStockReservedEvent event = new OrderStockReservedEvent(orderId, lines);
+        append("inventory.stock.reserved.order", orderId, event);
+        log.debug("Order stock reserved event queued - Order ID: {}, Lines: {}", orderId, lines.size());
     }
 
     /**
      * Publish stock released event
      */
     public void publishStockReleasedEvent(String productId, Integer quantity) {
-        try {
-            StockReleasedEvent event = new StockReleasedEvent(productId, quantity);
-            kafkaTemplate.send("inventory.stock.released", productId, event);
-            log.info("Stock released event published - Product ID: {}, Quantity: {}", productId, quantity);
-        } catch (Exception e) {
-            log.error("Failed to publish stock released event - Product ID: {}, Quantity: {}", productId, quantity, e);
-        }
+        StockReleasedEvent event = new StockReleasedEvent(productId, quantity);
+        append("inventory.stock.released", productId, event);
+        recordStockChange(productId, 0, -quantity);
+        log.debug("Stock released event queued - Product ID: {}, Quantity: {}", productId, quantity);
     }
 
     /**
      * Publish stock in event
      */
     public void publishStockInEvent(String productId, Integer quantity) {
-        try {
-            StockInEvent event = new StockInEvent(productId, quantity);
-            kafkaTemplate.send("inventory.stock.in", productId, event);
-            log.info("Stock in event published - Product ID: {}, Quantity: {}", productId, quantity);
-        } catch (Exception e) {
-            log.error("Failed to publish stock in event - Product ID: {}, Quantity: {}", productId, quantity, e);
-        }
+        StockInEvent event = new StockInEvent(productId, quantity);
+        append("inventory.stock.in", productId, event);
+        recordStockChange(productId, quantity, 0);
+        log.debug("Stock in event queued - Product ID: {}, Quantity: {}", productId, quantity);
     }
 
     /**
      * Publish stock out event
      */
     public void publishStockOutEvent(String productId, Integer quantity) {
-        try {
-            StockOutEvent event = new StockOutEvent(productId, quantity);
-            kafkaTemplate.send("inventory.stock.out", productId, event);
-            log.info("Stock out event published - Product ID: {}, Quantity: {}", productId, quantity);
-        } catch (Exception e) {
-            log.error("Failed to publish stock out event - Product ID: {}, Quantity: {}", productId, quantity, e);
-        }
+        StockOutEvent event = new StockOutEvent(productId, quantity);
+        append("inventory.stock.out", productId, event);
+        recordStockChange(productId, -quantity, -quantity);
+        log.debug("Stock out event queued - Product ID: {}, Quantity: {}", productId, quantity);
+    }
+
+    /**
+     * Publish one summarized event for a batch of stock movements
+     */
+    public void publishStockMovementsEvent(String batchId, List<MovementLine> lines) {
+        StockMovementsEvent event = new StockMovementsEvent(batchId, lines);
+        append("inventory.stock.movements", batchId, event);
+        lines.forEach(line -> recordStockChange(line.productId(), line.quantityDelta(), line.reservedDelta()));
+        log.debug("Stock movements event queued - Batch ID: {}, Lines: {}", batchId, lines.size());
     }
 
     /**
      * Publish inventory status changed event
      */
     public void publishInventoryStatusChangedEvent(String productId, String status) {
+        InventoryStatusChangedEvent event = new InventoryStatusChangedEvent(productId, status);
+        append("inventory.status.changed", productId, event);
+        applicationEventPublisher.publishEvent(new InventoryStatusChange(productId, status));
+        log.debug("Inventory status changed event queued - Product ID: {}, Status: {}", productId, status);
+    }
+
+    /**
+     * Publish availability changed event (compacted stock changes of one product; keyed for log compaction)
+     */
+    public void publishAvailabilityChangedEvent(AvailabilityChangedEvent event) {
+        append("inventory.availability.changed", event.productId(), event);
+        log.debug("Availability changed event queued - Product ID: {}, Changes: {}", event.productId(), event.changes());
+    }
+
+    /**
+     * Record a stock change for the availability stream
+     * (called by the publish methods; stock changes published without a per-product event report it directly)
+     */
+    public void recordStockChange(String productId, int quantityDelta, int reservedDelta) {
+        applicationEventPublisher.publishEvent(new StockChange(productId, quantityDelta, reservedDelta));
+    }
+
+    /**
+     * Write an event to the outbox in the caller's transaction
+     * (rolled back with the change it describes; the relay delivers it after commit)
+     */
+    private void append(String topic, String key, Object event) {
+        OutboxRepository.OutboxEvent outboxEvent = toOutboxEvent(topic, key, event);
+        outboxRepository.append(outboxEvent.topic(), outboxEvent.eventKey(), outboxEvent.eventType(), outboxEvent.payload());
+    }
+
+    /**
+     * Get the class of an outbox event type
+     *
+     * @return null if the type is not an outbox event
+     */
+    public static Class<?> eventClass(String eventType) {
+        return EVENT_TYPES.get(eventType);
+    }
+
+    private OutboxRepository.OutboxEvent toOutboxEvent(String topic, String key, Object event) {
+        if (!EVENT_TYPES.containsKey(event.getClass().getName())) {
+            throw new IllegalStateException("Event type not registered for the outbox: " + event.getClass().getSimpleName());
+        }
         try {
-            InventoryStatusChangedEvent event = new InventoryStatusChangedEvent(productId, status);
-            kafkaTemplate.send("inventory.status.changed", productId, event);
-            log.info("Inventory status changed event published - Product ID: {}, Status: {}", productId, status);
-        } catch (Exception e) {
-            log.error("Failed to publish inventory status changed event - Product ID: {}, Status: {}", productId, status, e);
+            return new OutboxRepository.OutboxEvent(topic, key, event.getClass().getName(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event: " + event.getClass().getSimpleName(), e);
         }
     }
 
     // Event class definitions
     public record ProductCreatedEvent(String productId) {}
     public record StockReservedEvent(String productId, Integer quantity) {}
+    public record OrderStockReservedEvent(String orderId, List<ReservedLine> lines) {}
+    public record ReservedLine(String productId, Integer quantity) {}
     public record StockReleasedEvent(String productId, Integer quantity) {}
     public record StockInEvent(String productId, Integer quantity) {}
     public record StockOutEvent(String productId, Integer quantity) {}
     public record InventoryStatusChangedEvent(String productId, String status) {}
+    public record StockMovementsEvent(String batchId, List<MovementLine> lines) {}
+    public record MovementLine(String productId, String locationCode, Integer quantityDelta, Integer reservedDelta,
+                               Integer quantity, Integer reservedQuantity, String status) {}
+    public record AvailabilityChangedEvent(String productId, Integer quantityDelta, Integer reservedDelta, Integer changes,
+                                           Integer quantity, Integer reservedQuantity, Integer availableQuantity, String status) {}
+
+    /**
+     * In-process notification of a stock change (delivered to listeners after commit)
+     */
+    public record StockChange(String productId, int quantityDelta, int reservedDelta) {}
+
+    /**
+     * In-process notification of an inventory status change (delivered to listeners after commit)
+     */
+    public record InventoryStatusChange(String productId, String status) {}
 }
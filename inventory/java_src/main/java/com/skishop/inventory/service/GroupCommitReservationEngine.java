@@ -0,0 +1,169 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.exception.InsufficientStockException;
+import com.skishop.inventory.exception.ReservationTimeoutException;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group-commit reservation engine
+ * Coalesces concurrent reservations for the same product over a short window and
+ * commits them with one conditional UPDATE, so a hot row takes one lock hand-off per batch
+ */
+@Component
+@Slf4j
+public class GroupCommitReservationEngine {
+
+    private final ReservationBatchWriter reservationBatchWriter;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long awaitTimeoutMillis;
+    private final ScheduledExecutorService flushExecutor;
+
+    private final ConcurrentMap<String, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public GroupCommitReservationEngine(
+            ReservationBatchWriter reservationBatchWriter,
+            @Value("${app.inventory.reservation.group-commit.window-ms:2}") long windowMillis,
+            @Value("${app.inventory.reservation.group-commit.max-batch-size:256}") int maxBatchSize,
+            @Value("${app.inventory.reservation.group-commit.flush-threads:4}") int flushThreads,
+            @Value("${app.inventory.reservation.group-commit.await-timeout-ms:5000}") long awaitTimeoutMillis) {
+        this.reservationBatchWriter = reservationBatchWriter;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.flushExecutor = Executors.newScheduledThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "reservation-group-commit-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reserve stock, blocking until the batch containing this request is committed
+     *
+     * @throws InsufficientStockException if the request did not fit into the available quantity
+     * @throws ReservationTimeoutException if the batch was not committed in time (nothing stays reserved)
+     */
+    public void reserve(String productId, int quantity) {
+        PendingReservation pending = new PendingReservation(quantity, new CompletableFuture<>());
+        Batch[] target = new Batch[1];
+        boolean[] opened = new boolean[1];
+
+        Batch open = openBatches.compute(productId, (id, current) -> {
+            Batch batch = current;
+            if (batch == null) {
+                batch = new Batch();
+                opened[0] = true;
+            }
+            batch.requests.add(pending);
+            target[0] = batch;
+            // A full batch is closed right away and flushed without waiting for the window
+            return batch.requests.size() >= maxBatchSize ? null : batch;
+        });
+
+        if (open == null) {
+            flushExecutor.execute(() -> flush(productId, target[0]));
+        } else if (opened[0]) {
+            flushExecutor.schedule(() -> flush(productId, target[0]), windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        await(pending);
+    }
+
+    /**
+     * Close the batch and commit it
+     */
+    private void flush(String productId, Batch batch) {
+        // Once removed from the map no more requests can join the batch
+        openBatches.remove(productId, batch);
+        if (!batch.flushed.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<PendingReservation> requests = batch.requests;
+        int[] quantities = requests.stream().mapToInt(PendingReservation::quantity).toArray();
+        boolean[] granted;
+        try {
+            granted = reservationBatchWriter.reserve(productId, quantities);
+        } catch (RuntimeException e) {
+            log.warn("Reservation batch failed - Product ID: {}, Requests: {}", productId, requests.size(), e);
+            requests.forEach(request -> request.result().completeExceptionally(e));
+            return;
+        }
+
+        // A request that already timed out was told nothing is reserved, so its grant is given back
+        int abandoned = 0;
+        for (int i = 0; i < granted.length; i++) {
+            if (!requests.get(i).result().complete(granted[i]) && granted[i]) {
+                abandoned += quantities[i];
+            }
+        }
+        if (abandoned > 0) {
+            releaseAbandoned(productId, abandoned);
+        }
+    }
+
+    private void releaseAbandoned(String productId, int quantity) {
+        try {
+            reservationBatchWriter.release(productId, quantity);
+            log.warn("Reservation granted after its requests timed out, released - Product ID: {}, Quantity: {}",
+                productId, quantity);
+        } catch (RuntimeException e) {
+            log.error("Failed to release reservation of timed out requests - Product ID: {}, Quantity: {}",
+                productId, quantity, e);
+        }
+    }
+
+    private void await(PendingReservation pending) {
+        boolean granted;
+        try {
+            granted = pending.result().orTimeout(awaitTimeoutMillis, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new ReservationTimeoutException(String.format(
+                    "Reservation not committed within %d ms, retry later. Requested: %d", awaitTimeoutMillis, pending.quantity()));
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (!granted) {
+            throw new InsufficientStockException(
+                String.format("Insufficient stock. Requested: %d", pending.quantity()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+    }
+
+    /**
+     * Requests collected for one product during the window
+     */
+    private static final class Batch {
+        private final List<PendingReservation> requests = new ArrayList<>();
+        private final AtomicBoolean flushed = new AtomicBoolean();
+    }
+
+    private record PendingReservation(int quantity, CompletableFuture<Boolean> result) {}
+}
@@ -1,19 +1,39 @@
 package com.skishop.inventory.service;
 
 import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.entity.jpa.ReservationHold;
+import com.skishop.inventory.repository.jdbc.InventoryBulkRepository;
 import com.skishop.inventory.repository.jpa.InventoryRepository;
+import com.skishop.inventory.repository.jpa.ReservationHoldRepository;
 import com.skishop.inventory.exception.ResourceNotFoundException;
 import com.skishop.inventory.exception.InsufficientStockException;
+import com.skishop.inventory.exception.ReservationConflictException;
+import com.skishop.inventory.exception.InventoryException;
+import com.skishop.inventory.ledger.ReservationLedger;
+import com.skishop.inventory.metrics.HotProductTracker;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,10 +43,32 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
+@Timed(value = "inventory.service", percentiles = {0.5, 0.99})
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final EventPublisherService eventPublisherService;
+    private final InventoryStatusService inventoryStatusService;
+    private final GroupCommitReservationEngine groupCommitReservationEngine;
+    private final ReservationLedger reservationLedger;
+    private final InventoryBulkRepository inventoryBulkRepository;
+    private final ReservationHoldRepository reservationHoldRepository;
+    private final CacheManager cacheManager;
+    private final HotProductTracker hotProductTracker;
+
+    @Value("${app.inventory.reservation.mode:DIRECT}")
+    private ReservationMode reservationMode;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    /**
+     * Movements per UPDATE statement
+     */
+    private static final int MOVEMENT_CHUNK_SIZE = 1000;
+
+    @Value("${app.inventory.reservation.hold.ttl-seconds:900}")
+    private int defaultHoldSeconds;
 
     /**
      * Get inventory information for a product
@@ -34,8 +76,9 @@ public class InventoryService {
     @Cacheable(value = "inventory", key = "#productId")
     public Inventory findByProductId(String productId) {
         log.debug("Retrieve inventory information - Product ID: {}", productId);
-        return inventoryRepository.findByProductId(productId)
+        Inventory inventory = inventoryRepository.findByProductId(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
+        return reservationLedger.manages(productId) ? reservationLedger.withLedgerQuantities(inventory) : inventory;
     }
 
     /**
@@ -44,6 +87,9 @@ public class InventoryService {
     @Cacheable(value = "availableQuantity", key = "#productId")
     public Integer getAvailableQuantity(String productId) {
         log.debug("Retrieve available inventory quantity - Product ID: {}", productId);
+        if (reservationLedger.manages(productId)) {
+            return reservationLedger.getAvailableQuantity(productId);
+        }
         return inventoryRepository.getAvailableQuantityByProductId(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
     }
@@ -62,43 +108,183 @@ public class InventoryService {
 
     /**
      * Reserve stock
+     *
+     * @param orderId Order or cart ID; when given, the reservation is recorded as a hold that expires
+     * @param holdSeconds Hold time to live (default when null)
      */
     @Transactional
     @CacheEvict(value = {"inventory", "availableQuantity"}, key = "#productId")
-    public void reserveStock(String productId, Integer quantity) {
-        log.info("Start stock reservation - Product ID: {}, Quantity: {}", productId, quantity);
+    public void reserveStock(String productId, Integer quantity, String orderId, Integer holdSeconds) {
+        long start = System.nanoTime();
+        try {
+            log.info("Start stock reservation - Product ID: {}, Quantity: {}", productId, quantity);
+
+            // High-velocity products are decided in the in-memory ledger
+            if (reservationLedger.manages(productId)) {
+                reservationLedger.reserve(productId, quantity);
+                recordHolds(orderId, Map.of(productId, quantity), holdSeconds);
+                return;
+            }
+
+            // Check available stock (direct repository call)
+            Integer availableQuantity = inventoryRepository.getAvailableQuantityByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
+            if (availableQuantity < quantity) {
+                throw new InsufficientStockException(
+                    String.format("Insufficient stock. Requested: %d, Available: %d", quantity, availableQuantity));
+            }
+
+            // Update reserved quantity
+            int updated = inventoryRepository.increaseReservedQuantity(productId, quantity);
+            if (updated == 0) {
+                throw new InsufficientStockException("Failed to reserve stock");
+            }
+
+            // Update inventory status
+            inventoryStatusService.refreshStatus(productId);
+
+            // Record hold
+            recordHolds(orderId, Map.of(productId, quantity), holdSeconds);
+
+            // Publish event
+            eventPublisherService.publishStockReservedEvent(productId, quantity);
+
+            log.info("Stock reservation completed - Product ID: {}, Quantity: {}", productId, quantity);
+        } finally {
+            hotProductTracker.record(productId, System.nanoTime() - start);
+        }
+    }
 
-        // Check available stock (direct repository call)
-        Integer availableQuantity = inventoryRepository.getAvailableQuantityByProductId(productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
-        if (availableQuantity < quantity) {
-            throw new InsufficientStockException(
-                String.format("Insufficient stock. Requested: %d, Available: %d", quantity, availableQuantity));
+    /**
+     * Reserve all lines of an order atomically
+     *
+     * <p>Rows are locked in product ID order, then every line is reserved by a single set-based
+     * UPDATE. If any line cannot be reserved, nothing is reserved.</p>
+     *
+     * @param orderId Order ID (every line is recorded as a hold of this order)
+     * @param quantities Requested quantity per product ID
+     * @param holdSeconds Hold time to live (default when null)
+     */
+    @Transactional
+    public void reserveStockBatch(String orderId, Map<String, Integer> quantities, Integer holdSeconds) {
+        log.info("Start batch stock reservation - Order ID: {}, Lines: {}", orderId, quantities.size());
+
+        // Deterministic order for row locks
+        Map<String, Integer> databaseLines = new TreeMap<>();
+        Map<String, Integer> ledgerLines = new TreeMap<>();
+        quantities.forEach((productId, quantity) ->
+            (reservationLedger.manages(productId) ? ledgerLines : databaseLines).put(productId, quantity));
+
+        // Lock rows and check every line before changing anything
+        Map<String, Inventory> locked = databaseLines.isEmpty() ? Map.of() : inventoryRepository
+            .findByProductIdInForUpdate(List.copyOf(databaseLines.keySet())).stream()
+            .collect(Collectors.toMap(Inventory::getProductId, identity -> identity));
+        List<String> insufficient = new ArrayList<>();
+        databaseLines.forEach((productId, quantity) -> {
+            Inventory inventory = locked.get(productId);
+            if (inventory == null) {
+                throw new ResourceNotFoundException("Inventory information not found: " + productId);
+            }
+            if (inventory.getAvailableQuantity() < quantity) {
+                insufficient.add(String.format("%s (Requested: %d, Available: %d)",
+                    productId, quantity, inventory.getAvailableQuantity()));
+            }
+        });
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException("Insufficient stock for order " + orderId + ": " + insufficient);
         }
 
-        // Update reserved quantity
-        int updated = inventoryRepository.increaseReservedQuantity(productId, quantity);
-        if (updated == 0) {
-            throw new InsufficientStockException("Failed to reserve stock");
+        // Reserve every line with one statement
+        List<InventoryBulkRepository.InventoryRow> updated = inventoryBulkRepository.applyDeltas(
+            databaseLines.entrySet().stream()
+                .map(line -> new InventoryBulkRepository.InventoryDelta(line.getKey(), 0, line.getValue()))
+                .toList());
+        if (updated.size() != databaseLines.size()) {
+            throw new InsufficientStockException("Failed to reserve stock for order " + orderId);
         }
 
-        // Update inventory status
-        updateInventoryStatus(productId);
+        // Ledger-managed lines are reserved last; the ledger reverses them if the transaction rolls back
+        ledgerLines.forEach(reservationLedger::reserve);
+        recordHolds(orderId, quantities, holdSeconds);
 
-        // Publish event
-        eventPublisherService.publishStockReservedEvent(productId, quantity);
+        updated.stream()
+            .filter(row -> row.status() != locked.get(row.productId()).getStatus())
+            .forEach(row -> eventPublisherService.publishInventoryStatusChangedEvent(row.productId(), row.status().name()));
+        databaseLines.forEach((productId, quantity) -> eventPublisherService.recordStockChange(productId, 0, quantity));
+        eventPublisherService.publishOrderStockReservedEvent(orderId, quantities);
+        evictInventoryCaches(quantities.keySet());
+
+        log.info("Batch stock reservation completed - Order ID: {}, Lines: {}", orderId, quantities.size());
+    }
+
+    /**
+     * Reserve stock through the group-commit engine
+     * Runs outside a transaction: concurrent requests for the same product are coalesced
+     * and committed together by the engine
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @CacheEvict(value = {"inventory", "availableQuantity"}, key = "#productId")
+    public void reserveStockGrouped(String productId, Integer quantity, String orderId, Integer holdSeconds) {
+        long start = System.nanoTime();
+        try {
+            log.info("Start grouped stock reservation - Product ID: {}, Quantity: {}", productId, quantity);
+
+            if (reservationLedger.manages(productId)) {
+                reservationLedger.reserve(productId, quantity);
+            } else {
+                groupCommitReservationEngine.reserve(productId, quantity);
+            }
+            recordHolds(orderId, Map.of(productId, quantity), holdSeconds);
+
+            log.info("Grouped stock reservation completed - Product ID: {}, Quantity: {}", productId, quantity);
+        } finally {
+            hotProductTracker.record(productId, System.nanoTime() - start);
+        }
+    }
 
-        log.info("Stock reservation completed - Product ID: {}, Quantity: {}", productId, quantity);
+    /**
+     * Get the configured reservation mode
+     */
+    public ReservationMode getReservationMode() {
+        return reservationMode;
     }
 
     /**
      * Release reserved stock
+     *
+     * @param orderId Order or cart ID; when given, only the quantity its holds for the product still
+     *                hold is released (the sweeper may have released part of it already). An order
+     *                that never held the product releases the requested quantity.
+     * @throws ReservationConflictException if all holds of the order for the product were already
+     *                                      released or expired
      */
     @Transactional
     @CacheEvict(value = {"inventory", "availableQuantity"}, key = "#productId")
-    public void releaseStock(String productId, Integer quantity) {
+    public void releaseStock(String productId, Integer quantity, String orderId) {
         log.info("Start releasing reserved stock - Product ID: {}, Quantity: {}", productId, quantity);
 
+        // Settle holds first so an expired hold is not released twice
+        if (orderId != null) {
+            int held = settleHolds(orderId, productId, quantity, ReservationHold.HoldStatus.RELEASED);
+            if (held == 0 && reservationHoldRepository.existsByOrderIdAndProductId(orderId, productId)) {
+                throw new ReservationConflictException(String.format(
+                    "Holds already released or expired - Order ID: %s, Product ID: %s", orderId, productId));
+            }
+            if (held > 0) {
+                if (held < quantity) {
+                    log.warn("Holds partly released or expired - Order ID: {}, Product ID: {}, Requested: {}, Held: {}",
+                        orderId, productId, quantity, held);
+                }
+                quantity = held;
+            }
+        }
+
+        // High-velocity products are decided in the in-memory ledger
+        if (reservationLedger.manages(productId)) {
+            reservationLedger.release(productId, quantity);
+            return;
+        }
+
         // Decrease reserved quantity
         int updated = inventoryRepository.decreaseReservedQuantity(productId, quantity);
         if (updated == 0) {
@@ -106,7 +292,7 @@ public class InventoryService {
         }
 
         // Update inventory status
-        updateInventoryStatus(productId);
+        inventoryStatusService.refreshStatus(productId);
 
         // Publish event
         eventPublisherService.publishStockReleasedEvent(productId, quantity);
@@ -114,6 +300,50 @@ public class InventoryService {
         log.info("Reserved stock released - Product ID: {}, Quantity: {}", productId, quantity);
     }
 
+    /**
+     * Release reserved stock of multiple products with one set-based update
+     * (used for expired holds; publishes one released event per product)
+     *
+     * @param quantities Quantity to release per product ID
+     */
+    @Transactional
+    public void releaseStockBatch(Map<String, Integer> quantities) {
+        log.debug("Start batch release of reserved stock - Products: {}", quantities.size());
+
+        Map<String, Integer> databaseLines = new TreeMap<>();
+        quantities.forEach((productId, quantity) -> {
+            if (!reservationLedger.manages(productId)) {
+                databaseLines.put(productId, quantity);
+                return;
+            }
+            try {
+                reservationLedger.release(productId, quantity);
+            } catch (ResourceNotFoundException e) {
+                log.warn("Reserved stock could not be released in ledger - Product ID: {}, Quantity: {}", productId, quantity);
+            }
+        });
+
+        List<InventoryBulkRepository.InventoryRow> updated = inventoryBulkRepository.applyDeltas(
+            databaseLines.entrySet().stream()
+                .map(line -> new InventoryBulkRepository.InventoryDelta(line.getKey(), 0, -line.getValue()))
+                .toList());
+        if (updated.size() != databaseLines.size()) {
+            log.warn("Some reserved stock could not be released - Requested: {}, Released: {}",
+                databaseLines.size(), updated.size());
+        }
+
+        for (InventoryBulkRepository.InventoryRow row : updated) {
+            int released = databaseLines.get(row.productId());
+            Inventory.InventoryStatus previousStatus = Inventory.InventoryStatus.fromQuantity(
+                row.availableQuantity() - released, lowStockThreshold);
+            if (previousStatus != row.status()) {
+                eventPublisherService.publishInventoryStatusChangedEvent(row.productId(), row.status().name());
+            }
+            eventPublisherService.publishStockReleasedEvent(row.productId(), released);
+        }
+        evictInventoryCaches(quantities.keySet());
+    }
+
     /**
      * Stock in process (receiving inventory)
      */
@@ -122,6 +352,12 @@ public class InventoryService {
     public void stockIn(String productId, Integer quantity) {
         log.info("Start stock in process - Product ID: {}, Quantity: {}", productId, quantity);
 
+        // High-velocity products are decided in the in-memory ledger
+        if (reservationLedger.manages(productId)) {
+            reservationLedger.stockIn(productId, quantity);
+            return;
+        }
+
         Inventory inventory = inventoryRepository.findByProductId(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
         inventory.setQuantity(inventory.getQuantity() + quantity);
@@ -129,7 +365,7 @@ public class InventoryService {
         inventoryRepository.save(inventory);
 
         // Update inventory status
-        updateInventoryStatus(productId);
+        inventoryStatusService.refreshStatus(productId);
 
         // Publish event
         eventPublisherService.publishStockInEvent(productId, quantity);
@@ -139,18 +375,33 @@ public class InventoryService {
 
     /**
      * Stock out process (shipping inventory)
+     *
+     * @param orderId Order or cart ID; when given, its holds for the product are fulfilled up to the
+     *                quantity, and what they no longer hold (expired) is shipped from available stock
      */
     @Transactional
     @CacheEvict(value = {"inventory", "availableQuantity"}, key = "#productId")
-    public void stockOut(String productId, Integer quantity) {
+    public void stockOut(String productId, Integer quantity, String orderId) {
         log.info("Start stock out process - Product ID: {}, Quantity: {}", productId, quantity);
 
+        // Reserved quantity consumed by this shipment
+        int reservedQuantity = orderId == null
+            ? quantity
+            : settleHolds(orderId, productId, quantity, ReservationHold.HoldStatus.FULFILLED);
+
+        // High-velocity products are decided in the in-memory ledger
+        if (reservationLedger.manages(productId)) {
+            reservationLedger.stockOut(productId, quantity, reservedQuantity);
+            return;
+        }
+
         Inventory inventory = inventoryRepository.findByProductId(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
         
-        // Subtract from reserved quantity
-        if (inventory.getReservedQuantity() >= quantity) {
-            inventory.setReservedQuantity(inventory.getReservedQuantity() - quantity);
+        // Subtract from reserved quantity (the part no longer held comes from available stock)
+        if (inventory.getReservedQuantity() >= reservedQuantity
+                && inventory.getAvailableQuantity() >= quantity - reservedQuantity) {
+            inventory.setReservedQuantity(inventory.getReservedQuantity() - reservedQuantity);
             inventory.setQuantity(inventory.getQuantity() - quantity);
         } else {
             throw new InsufficientStockException("Insufficient reserved quantity");
@@ -160,7 +411,7 @@ public class InventoryService {
         inventoryRepository.save(inventory);
 
         // Update inventory status
-        updateInventoryStatus(productId);
+        inventoryStatusService.refreshStatus(productId);
 
         // Publish event
         eventPublisherService.publishStockOutEvent(productId, quantity);
@@ -169,25 +420,102 @@ public class InventoryService {
     }
 
     /**
-     * Update inventory status (using Java 21 switch expression)
+     * Apply a batch of warehouse stock movements with set-based updates
+     *
+     * <p>A positive delta receives stock; a negative delta ships reserved stock (as in stockOut).
+     * The rows are locked, then each line is applied or rejected in request order against the running
+     * balance of its product and location, so a shipment can use stock received earlier in the batch.
+     * Rejected lines leave the inventory unchanged and do not affect the other lines. The net change
+     * per product and location is written with one statement per chunk, and one summarized event is
+     * published for the batch (products managed by the reservation ledger go through the ledger line by
+     * line, which publishes its own events).</p>
+     *
+     * @return Result per movement, in request order
      */
-    private void updateInventoryStatus(String productId) {
-        Inventory inventory = inventoryRepository.findByProductId(productId)
-            .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
+    @Transactional
+    public List<StockMovementResult> applyStockMovements(List<StockMovement> movements) {
+        log.info("Start stock movement batch - Lines: {}", movements.size());
+
+        // Lock the rows of the products the database decides
+        Map<String, Inventory> ledgerInventories = new HashMap<>();
+        List<String> databaseProductIds = new ArrayList<>();
+        for (String productId : movements.stream().map(StockMovement::productId).distinct().toList()) {
+            if (reservationLedger.manages(productId)) {
+                inventoryRepository.findByProductId(productId)
+                    .ifPresent(inventory -> ledgerInventories.put(productId, inventory));
+            } else {
+                databaseProductIds.add(productId);
+            }
+        }
+        Map<String, Inventory> locked = databaseProductIds.isEmpty() ? Map.of() : inventoryRepository
+            .findByProductIdInForUpdate(databaseProductIds).stream()
+            .collect(Collectors.toMap(inventory -> movementKey(inventory.getProductId(), inventory.getLocationCode()),
+                Function.identity()));
+
+        // Apply each line in order against the running balance
+        Map<String, int[]> balances = new HashMap<>();
+        Map<String, InventoryBulkRepository.LocatedDelta> netDeltas = new LinkedHashMap<>();
+        List<StockMovementResult> results = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            String key = movementKey(movement.productId(), movement.locationCode());
+            MovementOutcome outcome;
+            if (reservationLedger.manages(movement.productId())) {
+                outcome = applyLedgerMovement(movement, ledgerInventories.get(movement.productId()));
+            } else if (!locked.containsKey(key)) {
+                outcome = new MovementOutcome(StockMovementStatus.NOT_FOUND, "Inventory not found at location", null, null);
+            } else {
+                int[] balance = balances.computeIfAbsent(key, k ->
+                    new int[] {locked.get(k).getQuantity(), locked.get(k).getReservedQuantity()});
+                int reservedDelta = Math.min(movement.delta(), 0);
+                if (balance[1] + reservedDelta < 0) {
+                    outcome = new MovementOutcome(StockMovementStatus.REJECTED, "Insufficient reserved quantity", null, null);
+                } else {
+                    balance[0] += movement.delta();
+                    balance[1] += reservedDelta;
+                    netDeltas.merge(key,
+                        new InventoryBulkRepository.LocatedDelta(movement.productId(), movement.locationCode(),
+                            movement.delta(), reservedDelta),
+                        (first, second) -> new InventoryBulkRepository.LocatedDelta(first.productId(), first.locationCode(),
+                            first.quantityDelta() + second.quantityDelta(), first.reservedDelta() + second.reservedDelta()));
+                    outcome = new MovementOutcome(StockMovementStatus.APPLIED, null, balance[0], balance[1]);
+                }
+            }
+            results.add(new StockMovementResult(movement.productId(), movement.locationCode(), movement.delta(),
+                outcome.status(), outcome.message(), outcome.quantity(), outcome.reservedQuantity()));
+        }
 
-        int availableQuantity = inventory.getAvailableQuantity();
-        int lowStockThreshold = 5; // Can be made configurable
-        
-        // Use Java 21 switch expression and pattern matching
-        Inventory.InventoryStatus newStatus = Inventory.InventoryStatus.fromQuantity(
-            availableQuantity, 
-            lowStockThreshold
-        );
+        // Write the net changes; statuses are recomputed in the same statement
+        List<InventoryBulkRepository.LocatedDelta> databaseDeltas = netDeltas.values().stream()
+            .filter(delta -> delta.quantityDelta() != 0 || delta.reservedDelta() != 0)
+            .toList();
+        List<EventPublisherService.MovementLine> appliedLines = new ArrayList<>();
+        for (int from = 0; from < databaseDeltas.size(); from += MOVEMENT_CHUNK_SIZE) {
+            List<InventoryBulkRepository.LocatedDelta> chunk =
+                databaseDeltas.subList(from, Math.min(from + MOVEMENT_CHUNK_SIZE, databaseDeltas.size()));
+            List<InventoryBulkRepository.InventoryRow> updated = inventoryBulkRepository.applyLocatedDeltas(chunk);
+            if (updated.size() != chunk.size()) {
+                // The rows are locked and every line was checked, so this is not expected
+                throw new IllegalStateException("Stock movements could not be written - Expected: "
+                    + chunk.size() + ", Updated: " + updated.size());
+            }
+            for (InventoryBulkRepository.InventoryRow row : updated) {
+                String key = movementKey(row.productId(), row.locationCode());
+                InventoryBulkRepository.LocatedDelta delta = netDeltas.get(key);
+                if (locked.get(key).getStatus() != row.status()) {
+                    eventPublisherService.publishInventoryStatusChangedEvent(row.productId(), row.status().name());
+                }
+                appliedLines.add(new EventPublisherService.MovementLine(delta.productId(), delta.locationCode(),
+                    delta.quantityDelta(), delta.reservedDelta(), row.quantity(), row.reservedQuantity(), row.status().name()));
+            }
+        }
 
-        if (!newStatus.equals(inventory.getStatus())) {
-            inventoryRepository.updateStatusByProductId(productId, newStatus);
-            eventPublisherService.publishInventoryStatusChangedEvent(productId, newStatus.name());
+        if (!appliedLines.isEmpty()) {
+            eventPublisherService.publishStockMovementsEvent(UUID.randomUUID().toString(), appliedLines);
         }
+        evictInventoryCaches(movements.stream().map(StockMovement::productId).collect(Collectors.toSet()));
+
+        log.info("Stock movement batch completed - Lines: {}, Applied products: {}", movements.size(), appliedLines.size());
+        return results;
     }
 
     /**
@@ -197,4 +525,130 @@ public class InventoryService {
         log.debug("Retrieve low stock items - Threshold: {}", threshold);
         return inventoryRepository.findLowAvailableStockItems(threshold);
     }
+
+    /**
+     * Apply one movement through the ledger
+     */
+    private MovementOutcome applyLedgerMovement(StockMovement movement, Inventory inventory) {
+        String productId = movement.productId();
+        if (inventory == null || !inventory.getLocationCode().equals(movement.locationCode())) {
+            return new MovementOutcome(StockMovementStatus.NOT_FOUND, "Inventory not found at location", null, null);
+        }
+        try {
+            if (movement.delta() < 0) {
+                reservationLedger.stockOut(productId, -movement.delta());
+            } else {
+                reservationLedger.stockIn(productId, movement.delta());
+            }
+        } catch (InventoryException e) {
+            return new MovementOutcome(StockMovementStatus.REJECTED, e.getMessage(), null, null);
+        }
+        return new MovementOutcome(StockMovementStatus.APPLIED, null,
+            reservationLedger.getQuantity(productId), reservationLedger.getReservedQuantity(productId));
+    }
+
+    private static String movementKey(String productId, String locationCode) {
+        return productId + '\n' + locationCode;
+    }
+
+    /**
+     * Record reservations as holds of an order
+     * (nothing is recorded without an order ID, so such a reservation never expires)
+     */
+    private void recordHolds(String orderId, Map<String, Integer> quantities, Integer holdSeconds) {
+        if (orderId == null) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(holdSeconds != null ? holdSeconds : defaultHoldSeconds);
+        reservationHoldRepository.saveAll(quantities.entrySet().stream()
+            .map(line -> ReservationHold.builder()
+                .orderId(orderId)
+                .productId(line.getKey())
+                .quantity(line.getValue())
+                .status(ReservationHold.HoldStatus.ACTIVE)
+                .expiresAt(expiresAt)
+                .build())
+            .toList());
+    }
+
+    /**
+     * Lock the open holds of an order for a product and settle them up to the quantity, oldest first
+     *
+     * <p>A hold larger than what is left to settle is split: the settled part is recorded with the
+     * status and the rest stays open. Holds the sweeper has already expired are not open any more.</p>
+     *
+     * @return Quantity the settled holds still held
+     */
+    private int settleHolds(String orderId, String productId, int quantity, ReservationHold.HoldStatus status) {
+        List<ReservationHold> holds = reservationHoldRepository.findByOrderIdAndProductIdAndStatusInOrderByExpiresAtAsc(
+            orderId, productId, List.of(ReservationHold.HoldStatus.ACTIVE, ReservationHold.HoldStatus.CONFIRMED));
+        int remaining = quantity;
+        List<ReservationHold> settled = new ArrayList<>();
+        for (ReservationHold hold : holds) {
+            if (remaining == 0) {
+                break;
+            }
+            if (hold.getQuantity() <= remaining) {
+                remaining -= hold.getQuantity();
+                hold.setStatus(status);
+            } else {
+                hold.setQuantity(hold.getQuantity() - remaining);
+                settled.add(ReservationHold.builder()
+                    .orderId(orderId)
+                    .productId(productId)
+                    .quantity(remaining)
+                    .status(status)
+                    .expiresAt(hold.getExpiresAt())
+                    .build());
+                remaining = 0;
+            }
+            settled.add(hold);
+        }
+        reservationHoldRepository.saveAll(settled);
+        return quantity - remaining;
+    }
+
+    /**
+     * Evict cached inventory of the given products
+     */
+    private void evictInventoryCaches(Collection<String> productIds) {
+        for (String cacheName : List.of("inventory", "availableQuantity")) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                productIds.forEach(cache::evict);
+            }
+        }
+    }
+
+    /**
+     * Stock movement (positive: receive, negative: ship reserved stock)
+     */
+    public record StockMovement(String productId, String locationCode, int delta) {}
+
+    /**
+     * Result of one stock movement (quantities right after the line when applied)
+     */
+    public record StockMovementResult(String productId, String locationCode, int delta, StockMovementStatus status,
+                                      String message, Integer quantity, Integer reservedQuantity) {}
+
+    private record MovementOutcome(StockMovementStatus status, String message, Integer quantity, Integer reservedQuantity) {}
+
+    /**
+     * Stock movement result status
+     */
+    public enum StockMovementStatus {
+        APPLIED,
+        REJECTED,
+        NOT_FOUND
+    }
+
+    /**
+     * Reservation mode
+     */
+    public enum ReservationMode {
+        /** Each reservation runs its own transaction */
+        DIRECT,
+        /** Concurrent reservations for the same product are committed together */
+        GROUP_COMMIT
+    }
 }
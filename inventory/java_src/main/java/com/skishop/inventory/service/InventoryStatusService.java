@@ -0,0 +1,49 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.exception.ResourceNotFoundException;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inventory Status Service
+ * Recomputes the inventory status after stock mutations
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryStatusService {
+
+    private final InventoryRepository inventoryRepository;
+    private final EventPublisherService eventPublisherService;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    /**
+     * Update inventory status (using Java 21 switch expression)
+     */
+    @Transactional
+    public void refreshStatus(String productId) {
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+            .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
+
+        int availableQuantity = inventory.getAvailableQuantity();
+        
+        // Use Java 21 switch expression and pattern matching
+        Inventory.InventoryStatus newStatus = Inventory.InventoryStatus.fromQuantity(
+            availableQuantity, 
+            lowStockThreshold
+        );
+
+        if (!newStatus.equals(inventory.getStatus())) {
+            inventoryRepository.updateStatusByProductId(productId, newStatus);
+            eventPublisherService.publishInventoryStatusChangedEvent(productId, newStatus.name());
+        }
+    }
+}
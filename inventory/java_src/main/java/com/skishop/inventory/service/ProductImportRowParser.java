@@ -0,0 +1,154 @@
+package com.skishop.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skishop.inventory.dto.request.ProductCreateRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses one import row into a product creation request
+ *
+ * <p>NDJSON rows are ProductCreateRequest objects. CSV rows are flat, with a header naming the
+ * columns: sku, name, description, brand, categoryId, tags ("|"-separated), regularPrice,
+ * salePrice, saleStartDate, saleEndDate (ISO date-time), currencyCode, quantity, locationCode.
+ * Quoted CSV fields may contain commas and doubled quotes, but not line breaks.</p>
+ */
+final class ProductImportRowParser {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> csvColumns;
+
+    private ProductImportRowParser(ObjectMapper objectMapper, Map<String, Integer> csvColumns) {
+        this.objectMapper = objectMapper;
+        this.csvColumns = csvColumns;
+    }
+
+    static ProductImportRowParser ndjson(ObjectMapper objectMapper) {
+        return new ProductImportRowParser(objectMapper, null);
+    }
+
+    static ProductImportRowParser csv(String headerLine) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsv(headerLine);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        return new ProductImportRowParser(null, columns);
+    }
+
+    /**
+     * Parse a row
+     *
+     * @throws IllegalArgumentException if the row cannot be read
+     */
+    ProductCreateRequest parse(String line) {
+        return csvColumns == null ? parseJson(line) : parseCsv(line);
+    }
+
+    private ProductCreateRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ProductCreateRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ProductCreateRequest parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        String tags = field(fields, "tags");
+        String currencyCode = field(fields, "currencyCode");
+        return ProductCreateRequest.builder()
+            .sku(field(fields, "sku"))
+            .name(field(fields, "name"))
+            .description(field(fields, "description"))
+            .brand(field(fields, "brand"))
+            .categoryId(field(fields, "categoryId"))
+            .tags(tags == null ? null : Arrays.stream(tags.split("\\|")).map(String::trim).filter(tag -> !tag.isEmpty()).toList())
+            .price(ProductCreateRequest.PriceRequest.builder()
+                .regularPrice(decimal(fields, "regularPrice"))
+                .salePrice(decimal(fields, "salePrice"))
+                .saleStartDate(dateTime(fields, "saleStartDate"))
+                .saleEndDate(dateTime(fields, "saleEndDate"))
+                .currencyCode(currencyCode == null ? "JPY" : currencyCode)
+                .build())
+            .inventory(ProductCreateRequest.InventoryRequest.builder()
+                .quantity(integer(fields, "quantity"))
+                .locationCode(field(fields, "locationCode"))
+                .build())
+            .build();
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private BigDecimal decimal(List<String> fields, String column) {
+        String value = field(fields, column);
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + column + ": " + value);
+        }
+    }
+
+    private Integer integer(List<String> fields, String column) {
+        String value = field(fields, column);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid integer in " + column + ": " + value);
+        }
+    }
+
+    private LocalDateTime dateTime(List<String> fields, String column) {
+        String value = field(fields, column);
+        try {
+            return value == null ? null : LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date-time in " + column + ": " + value);
+        }
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,343 @@
+package com.skishop.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skishop.inventory.cache.CacheDependencies;
+import com.skishop.inventory.dto.CategoryDTO;
+import com.skishop.inventory.dto.ProductImportResult;
+import com.skishop.inventory.dto.request.ProductCreateRequest;
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.entity.jpa.Price;
+import com.skishop.inventory.entity.mongo.Product;
+import com.skishop.inventory.mapper.ProductMapper;
+import com.skishop.inventory.pricing.PriceEngine;
+import com.skishop.inventory.pricing.PriceRangeIndex;
+import com.skishop.inventory.repository.jdbc.CatalogBulkRepository;
+import com.skishop.inventory.repository.mongo.ProductRepository;
+import com.skishop.inventory.search.ProductFacetIndex;
+import com.skishop.inventory.search.ProductSearchIndex;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import (CSV or NDJSON)
+ *
+ * <p>Rows are validated in one streaming pass and imported in chunks. Per chunk, existing SKUs
+ * and categories are resolved once, products are written with one unordered Mongo bulk insert,
+ * and prices, inventory and created events with JDBC batches in one transaction. If that
+ * transaction fails, the chunk is retried row by row so only the failing rows are rejected.
+ * Rejected rows are reported and the rest of the load continues.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed(value = "inventory.service", percentiles = {0.5, 0.99})
+public class ProductImportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final CategoryService categoryService;
+    private final CatalogBulkRepository catalogBulkRepository;
+    private final EventPublisherService eventPublisherService;
+    private final PriceEngine priceEngine;
+    private final PriceRangeIndex priceRangeIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductViewInvalidator productViewInvalidator;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.inventory.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.inventory.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${app.inventory.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    /**
+     * Import products
+     */
+    public ProductImportResult importProducts(InputStream input, ImportFormat format) throws IOException {
+        log.info("Start product import - Format: {}", format);
+        Progress progress = new Progress(maxReportedErrors);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        ProductImportRowParser parser;
+        if (format == ImportFormat.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                return progress.toResult();
+            }
+            parser = ProductImportRowParser.csv(header.replace("\uFEFF", ""));
+        } else {
+            parser = ProductImportRowParser.ndjson(objectMapper);
+        }
+
+        Set<String> seenSkus = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            progress.total++;
+            ImportRow row = validate(lineNumber, line, parser, seenSkus, progress);
+            if (row == null) {
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, transactionTemplate, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, transactionTemplate, progress);
+        }
+
+        log.info("Product import completed - Rows: {}, Imported: {}, Failed: {}",
+            progress.total, progress.imported, progress.failed);
+        return progress.toResult();
+    }
+
+    private ImportRow validate(long lineNumber, String line, ProductImportRowParser parser,
+                               Set<String> seenSkus, Progress progress) {
+        ProductCreateRequest request;
+        try {
+            request = parser.parse(line);
+        } catch (IllegalArgumentException e) {
+            progress.fail(lineNumber, null, e.getMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<ProductCreateRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            progress.fail(lineNumber, request.getSku(), violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ")));
+            return null;
+        }
+        if (!seenSkus.add(request.getSku())) {
+            progress.fail(lineNumber, request.getSku(), "Duplicate SKU in input");
+            return null;
+        }
+        return new ImportRow(lineNumber, request);
+    }
+
+    private void importChunk(List<ImportRow> chunk, TransactionTemplate transactionTemplate, Progress progress) {
+        // Resolve existing SKUs and categories once for the chunk
+        Set<String> existingSkus = productRepository.findSkusBySkuIn(
+                chunk.stream().map(row -> row.request().getSku()).toList()).stream()
+            .map(Product::getSku)
+            .collect(Collectors.toSet());
+        Map<String, CategoryDTO> categories = categoryService.findByIds(
+            chunk.stream().map(row -> row.request().getCategoryId()).collect(Collectors.toSet()));
+
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        List<Product> products = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            ProductCreateRequest request = row.request();
+            if (existingSkus.contains(request.getSku())) {
+                progress.fail(row.line(), request.getSku(), "SKU already exists: " + request.getSku());
+            } else if (!categories.containsKey(request.getCategoryId())) {
+                progress.fail(row.line(), request.getSku(), "Category not found: " + request.getCategoryId());
+            } else {
+                Product product = productMapper.toEntity(request);
+                product.setId(new ObjectId().toHexString());
+                product.prePersist();
+                rows.add(row);
+                products.add(product);
+            }
+        }
+        if (products.isEmpty()) {
+            return;
+        }
+
+        // Unordered insert: a failing document does not stop the others
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class).insert(products).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                ImportRow row = rows.get(error.getIndex());
+                progress.fail(row.line(), row.request().getSku(), error.getMessage());
+            }
+        }
+
+        List<ImportRow> insertedRows = new ArrayList<>(products.size());
+        List<Product> inserted = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                insertedRows.add(rows.get(i));
+                inserted.add(products.get(i));
+            }
+        }
+        if (inserted.isEmpty()) {
+            return;
+        }
+
+        List<ImportRow> savedRows = insertedRows;
+        List<Product> saved = inserted;
+        try {
+            savePricesAndInventories(inserted, insertedRows, transactionTemplate);
+        } catch (RuntimeException e) {
+            // Retry row by row so one bad row does not reject the whole chunk
+            log.warn("Failed to import price and inventory, retrying row by row - Products: {}", inserted.size(), e);
+            savedRows = new ArrayList<>(inserted.size());
+            saved = new ArrayList<>(inserted.size());
+            List<String> rejectedIds = new ArrayList<>();
+            for (int i = 0; i < inserted.size(); i++) {
+                ImportRow row = insertedRows.get(i);
+                Product product = inserted.get(i);
+                try {
+                    savePricesAndInventories(List.of(product), List.of(row), transactionTemplate);
+                    savedRows.add(row);
+                    saved.add(product);
+                } catch (RuntimeException rowError) {
+                    rejectedIds.add(product.getId());
+                    progress.fail(row.line(), row.request().getSku(), "Failed to save price and inventory: "
+                        + NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                }
+            }
+            // Keep Mongo consistent with Postgres: remove the rejected products again
+            if (!rejectedIds.isEmpty()) {
+                mongoTemplate.remove(new Query(Criteria.where("id").in(rejectedIds)), Product.class);
+            }
+            if (saved.isEmpty()) {
+                return;
+            }
+        }
+
+        saved.forEach(productSearchIndex::upsert);
+        priceRangeIndex.upsertProducts(saved);
+        Set<String> tags = new HashSet<>();
+        tags.add(CacheDependencies.CATALOG);
+        saved.stream()
+            .map(Product::getCategoryId)
+            .filter(Objects::nonNull)
+            .forEach(categoryId -> tags.add(CacheDependencies.category(categoryId)));
+        productViewInvalidator.invalidate(tags);
+        for (int i = 0; i < saved.size(); i++) {
+            productFacetIndex.upsert(saved.get(i), Inventory.InventoryStatus.fromQuantity(
+                savedRows.get(i).request().getInventory().getQuantity(), lowStockThreshold));
+        }
+        progress.imported += saved.size();
+    }
+
+    /**
+     * Insert prices, inventory and created events of imported products in one transaction
+     */
+    private void savePricesAndInventories(List<Product> products, List<ImportRow> rows,
+                                          TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Price> prices = new ArrayList<>(products.size());
+            List<Inventory> inventories = new ArrayList<>(products.size());
+            for (int i = 0; i < products.size(); i++) {
+                prices.add(toPrice(products.get(i).getId(), rows.get(i).request().getPrice()));
+                inventories.add(toInventory(products.get(i).getId(), rows.get(i).request().getInventory()));
+            }
+            catalogBulkRepository.insertPrices(prices);
+            priceEngine.updateAfterCommit(prices);
+            catalogBulkRepository.insertInventories(inventories);
+            eventPublisherService.publishProductCreatedEvents(products.stream().map(Product::getId).toList());
+        });
+    }
+
+    private Price toPrice(String productId, ProductCreateRequest.PriceRequest request) {
+        Price price = Price.builder()
+            .productId(productId)
+            .regularPrice(request.getRegularPrice())
+            .salePrice(request.getSalePrice())
+            .saleStartDate(request.getSaleStartDate())
+            .saleEndDate(request.getSaleEndDate())
+            .currencyCode(request.getCurrencyCode())
+            .build();
+        price.prePersist();
+        return price;
+    }
+
+    private Inventory toInventory(String productId, ProductCreateRequest.InventoryRequest request) {
+        Inventory inventory = Inventory.builder()
+            .productId(productId)
+            .quantity(request.getQuantity())
+            .locationCode(request.getLocationCode())
+            .status(Inventory.InventoryStatus.fromQuantity(request.getQuantity(), lowStockThreshold))
+            .build();
+        inventory.prePersist();
+        return inventory;
+    }
+
+    /**
+     * Import input format
+     */
+    public enum ImportFormat {
+        CSV,
+        NDJSON
+    }
+
+    private record ImportRow(long line, ProductCreateRequest request) {}
+
+    /**
+     * Counters and capped error list of one import
+     */
+    private static final class Progress {
+
+        private final int maxReportedErrors;
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+
+        Progress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void fail(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportResult.RowError(line, sku, message));
+            }
+        }
+
+        ProductImportResult toResult() {
+            return new ProductImportResult(total, imported, failed, List.copyOf(errors));
+        }
+    }
+}
@@ -1,28 +1,63 @@
 package com.skishop.inventory.service;
 
+import com.skishop.inventory.cache.CacheDependencies;
 import com.skishop.inventory.dto.ProductDTO;
 import com.skishop.inventory.dto.CategoryDTO;
+import com.skishop.inventory.dto.CursorPage;
+import com.skishop.inventory.dto.FacetedPage;
 import com.skishop.inventory.dto.request.ProductCreateRequest;
 import com.skishop.inventory.entity.mongo.Product;
 import com.skishop.inventory.entity.jpa.Inventory;
 import com.skishop.inventory.entity.jpa.Price;
+import com.skishop.inventory.repository.mongo.ProductKeysetRepository;
 import com.skishop.inventory.repository.mongo.ProductRepository;
 import com.skishop.inventory.repository.jpa.InventoryRepository;
 import com.skishop.inventory.repository.jpa.PriceRepository;
 import com.skishop.inventory.mapper.ProductMapper;
+import com.skishop.inventory.pricing.EffectivePrice;
+import com.skishop.inventory.pricing.PriceEngine;
+import com.skishop.inventory.pricing.PriceRangeIndex;
 import com.skishop.inventory.exception.ResourceNotFoundException;
+import com.skishop.inventory.ledger.ReservationLedger;
 import com.skishop.inventory.exception.DuplicateResourceException;
+import com.skishop.inventory.search.ProductFacetIndex;
+import com.skishop.inventory.search.ProductSearchIndex;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Product Service
@@ -31,39 +66,183 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 @Transactional(readOnly = true)
+@Timed(value = "inventory.service", percentiles = {0.5, 0.99})
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
+    private final ReservationLedger reservationLedger;
     private final PriceRepository priceRepository;
+    private final PriceEngine priceEngine;
+    private final PriceRangeIndex priceRangeIndex;
     private final ProductMapper productMapper;
     private final CategoryService categoryService;
     private final EventPublisherService eventPublisherService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductViewInvalidator productViewInvalidator;
+    private final ProductKeysetRepository productKeysetRepository;
+    private final CacheManager cacheManager;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.inventory.export.chunk-size:500}")
+    private int exportChunkSize;
 
     /**
      * Get product list
      */
-    @Cacheable(value = "products", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(value = "products", key = "#pageable.pageNumber + '_' + #pageable.pageSize", sync = true)
     public Page<ProductDTO> findAll(Pageable pageable) {
         log.debug("Get product list - Page: {}", pageable);
+        CacheDependencies.record(CacheDependencies.CATALOG);
         Page<Product> products = productRepository.findByActiveTrue(pageable);
-        return products.map(this::enrichProductWithDetails);
+        return enrichPageWithDetails(products);
     }
 
     /**
-     * Search products
+     * Get product list with keyset pagination (cost does not grow with depth)
+     *
+     * @param categoryId Category ID (all categories when null)
+     * @param after Cursor returned with the previous slice (first slice when null)
+     * @param includeTotal Whether to add the cached approximate total
      */
-    @Cacheable(value = "productSearch", key = "#keyword + '_' + #pageable.pageNumber")
+    public CursorPage<ProductDTO> findAfter(String categoryId, ProductKeysetRepository.Cursor after,
+                                            ProductKeysetRepository.SortKey sortKey, Sort.Direction direction,
+                                            int size, boolean includeTotal) {
+        log.debug("Get product slice - Category ID: {}, Sort: {} {}, Size: {}", categoryId, sortKey, direction, size);
+
+        // One extra product tells whether a next slice exists
+        List<Product> products = productKeysetRepository.findActiveAfter(categoryId, sortKey, direction, after, size + 1);
+        boolean hasNext = products.size() > size;
+        List<Product> content = hasNext ? products.subList(0, size) : products;
+        String nextCursor = hasNext
+            ? ProductKeysetRepository.Cursor.after(content.get(content.size() - 1), sortKey, direction).encode()
+            : null;
+        Long approximateTotal = includeTotal ? approximateActiveCount(categoryId) : null;
+
+        return new CursorPage<>(enrichProductsWithDetails(content), size, nextCursor, hasNext, approximateTotal);
+    }
+
+    /**
+     * Stream every active product as NDJSON (one ProductDTO per line)
+     *
+     * <p>Products are read from a Mongo cursor and enriched in fixed-size chunks, so memory use
+     * does not depend on the catalog size. Writes block while the client is slow, which in turn
+     * stops reading the cursor. No transaction is held; each chunk's lookups use their own.</p>
+     *
+     * @param updatedSince Only products updated at or after this time (all when null)
+     * @return Number of exported products
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long exportActiveProducts(LocalDateTime updatedSince, OutputStream out) throws IOException {
+        Query query = new Query(Criteria.where("active").is(true));
+        if (updatedSince != null) {
+            query.addCriteria(Criteria.where("updatedAt").gte(updatedSince));
+        }
+        query.with(Sort.by("id"));
+        query.cursorBatchSize(exportChunkSize);
+
+        long exported = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                 .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                 .setRootValueSeparator(null);
+             Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            Iterator<Product> iterator = products.iterator();
+            List<Product> chunk = new ArrayList<>(exportChunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == exportChunkSize || !iterator.hasNext()) {
+                    for (ProductDTO product : enrichProductsWithDetails(chunk)) {
+                        generator.writeObject(product);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    exported += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        log.info("Product export completed - Products: {}, Updated since: {}", exported, updatedSince);
+        return exported;
+    }
+
+    /**
+     * Search products (ranked by the in-process search index; only the requested page is loaded)
+     */
+    @Cacheable(value = "productSearch", key = "#keyword + '_' + #pageable.pageNumber", sync = true)
     public Page<ProductDTO> searchProducts(String keyword, Pageable pageable) {
         log.debug("Search products - Keyword: {}, Page: {}", keyword, pageable);
-        Page<Product> products = productRepository.searchProducts(keyword, pageable);
-        return products.map(this::enrichProductWithDetails);
+        CacheDependencies.record(CacheDependencies.CATALOG);
+        List<String> rankedIds = productSearchIndex.search(keyword);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<String> pageIds = rankedIds.subList(from, to);
+        return enrichPageWithDetails(new PageImpl<>(findActiveInOrder(pageIds), pageable, rankedIds.size()));
+    }
+
+    /**
+     * Get products whose effective price is within the range (served by the in-memory price range index)
+     *
+     * @param minPrice Minimum price (inclusive, unbounded when null)
+     * @param maxPrice Maximum price (inclusive, unbounded when null)
+     * @param categoryId Category ID (all categories when null)
+     * @param descending Most expensive first when true
+     */
+    public Page<ProductDTO> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, String currencyCode,
+                                             String categoryId, boolean descending, Pageable pageable) {
+        log.debug("Get products by price range - Min: {}, Max: {}, Currency: {}, Category ID: {}, Page: {}",
+            minPrice, maxPrice, currencyCode, categoryId, pageable);
+        long minMinorUnits = minPrice == null
+            ? Long.MIN_VALUE : PriceEngine.toMinorUnits(minPrice, currencyCode, RoundingMode.CEILING);
+        long maxMinorUnits = maxPrice == null
+            ? Long.MAX_VALUE : PriceEngine.toMinorUnits(maxPrice, currencyCode, RoundingMode.FLOOR);
+        List<String> matchedIds = priceRangeIndex.findProductIds(currencyCode, minMinorUnits, maxMinorUnits, categoryId);
+        if (descending) {
+            matchedIds = matchedIds.reversed();
+        }
+        int from = (int) Math.min(pageable.getOffset(), matchedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), matchedIds.size());
+        List<String> pageIds = matchedIds.subList(from, to);
+        return enrichPageWithDetails(new PageImpl<>(findActiveInOrder(pageIds), pageable, matchedIds.size()));
+    }
+
+    /**
+     * Faceted search (filters and counts are resolved in the in-process facet index; only the requested page is loaded)
+     *
+     * @param selections Selected values per facet
+     */
+    public FacetedPage<ProductDTO> searchFacets(Map<ProductFacetIndex.Facet, List<String>> selections, Pageable pageable) {
+        log.debug("Faceted search - Selections: {}, Page: {}", selections, pageable);
+        ProductFacetIndex.FacetResult result = productFacetIndex.search(selections);
+        List<String> matchedIds = result.productIds();
+        int from = (int) Math.min(pageable.getOffset(), matchedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), matchedIds.size());
+        Page<ProductDTO> page = enrichPageWithDetails(
+            new PageImpl<>(findActiveInOrder(matchedIds.subList(from, to)), pageable, matchedIds.size()));
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        result.counts().forEach((facet, counts) -> facets.put(facet.name(), counts));
+        return new FacetedPage<>(page.getContent(), pageable.getPageNumber(), pageable.getPageSize(),
+            matchedIds.size(), facets);
+    }
+
+    /**
+     * Load active products keeping the order of the given IDs
+     */
+    private List<Product> findActiveInOrder(List<String> ids) {
+        Map<String, Product> products = productRepository.findByIdInAndActiveTrue(ids).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+            .map(products::get)
+            .filter(Objects::nonNull)
+            .toList();
     }
 
     /**
      * Get product details
      */
-    @Cacheable(value = "product", key = "#id")
+    @Cacheable(value = "product", key = "#id", sync = true)
     public ProductDTO findById(String id) {
         log.debug("Get product details - ID: {}", id);
         Product product = productRepository.findById(id)
@@ -75,7 +254,7 @@ public class ProductService {
     /**
      * Get product by SKU
      */
-    @Cacheable(value = "productBySku", key = "#sku")
+    @Cacheable(value = "productBySku", key = "#sku", sync = true)
     public ProductDTO findBySku(String sku) {
         log.debug("Get product by SKU - SKU: {}", sku);
         Product product = productRepository.findBySku(sku)
@@ -87,18 +266,39 @@ public class ProductService {
     /**
      * Get products by category
      */
-    @Cacheable(value = "productsByCategory", key = "#categoryId + '_' + #pageable.pageNumber")
+    @Cacheable(value = "productsByCategory", key = "#categoryId + '_' + #pageable.pageNumber", sync = true)
     public Page<ProductDTO> findByCategory(String categoryId, Pageable pageable) {
         log.debug("Get products by category - Category ID: {}, Page: {}", categoryId, pageable);
+        CacheDependencies.record(CacheDependencies.category(categoryId));
         Page<Product> products = productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
-        return products.map(this::enrichProductWithDetails);
+        return enrichPageWithDetails(products);
+    }
+
+    /**
+     * Get products by category, optionally only those in stock
+     *
+     * <p>In-stock products are taken from the availability bitmaps of the facet index and paginated in
+     * its order (the sort of the pageable does not apply), so no inventory rows are read to decide which
+     * products to show and only the requested page is loaded.</p>
+     */
+    public Page<ProductDTO> findByCategory(String categoryId, Pageable pageable, boolean inStockOnly) {
+        log.debug("Get products by category - Category ID: {}, In stock only: {}, Page: {}", categoryId, inStockOnly, pageable);
+        categoryService.findById(categoryId);
+        if (!inStockOnly) {
+            return enrichPageWithDetails(productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable));
+        }
+
+        List<String> inStockIds = productFacetIndex.findInStock(categoryId);
+        int from = (int) Math.min(pageable.getOffset(), inStockIds.size());
+        int to = Math.min(from + pageable.getPageSize(), inStockIds.size());
+        return enrichPageWithDetails(
+            new PageImpl<>(findActiveInOrder(inStockIds.subList(from, to)), pageable, inStockIds.size()));
     }
 
     /**
      * Create product
      */
     @Transactional
-    @CacheEvict(value = {"products", "productsByCategory"}, allEntries = true)
     public ProductDTO createProduct(ProductCreateRequest request) {
         log.info("Start creating product - SKU: {}", request.getSku());
 
@@ -114,6 +314,8 @@ public class ProductService {
         Product product = productMapper.toEntity(request);
         product.prePersist();
         product = productRepository.save(product);
+        productSearchIndex.upsert(product);
+        priceRangeIndex.upsertProduct(product);
 
         // Create price information
         Price price = Price.builder()
@@ -126,6 +328,7 @@ public class ProductService {
             .build();
         price.prePersist();
         priceRepository.save(price);
+        priceEngine.updateAfterCommit(List.of(price));
 
         // Create inventory information
         Inventory inventory = Inventory.builder()
@@ -135,50 +338,112 @@ public class ProductService {
             .build();
         inventory.prePersist();
         inventoryRepository.save(inventory);
+        productFacetIndex.upsert(product, inventory.getStatus());
 
         // Publish event
         eventPublisherService.publishProductCreatedEvent(product.getId());
+        productViewInvalidator.invalidate(List.of(CacheDependencies.CATALOG, CacheDependencies.category(product.getCategoryId())));
 
         log.info("Product creation completed - ID: {}, SKU: {}", product.getId(), product.getSku());
         return enrichProductWithDetails(product);
     }
 
+    /**
+     * Active product count, cached for the cache TTL so slices never run count() per request
+     */
+    private Long approximateActiveCount(String categoryId) {
+        Cache cache = cacheManager.getCache("productCountEstimates");
+        String key = categoryId == null ? "all" : categoryId;
+        return cache.get(key, () -> categoryId == null
+            ? productRepository.countByActiveTrue()
+            : productRepository.countByCategoryIdAndActiveTrue(categoryId));
+    }
+
     /**
      * Enrich product with additional details
      */
     private ProductDTO enrichProductWithDetails(Product product) {
-        // Get category information
-        CategoryDTO category = null;
-        if (product.getCategoryId() != null) {
-            try {
-                category = categoryService.findById(product.getCategoryId());
-            } catch (ResourceNotFoundException e) {
-                log.warn("Category not found - ID: {}", product.getCategoryId());
+        return enrichProductsWithDetails(List.of(product)).get(0);
+    }
+
+    /**
+     * Enrich a page of products with additional details
+     */
+    private Page<ProductDTO> enrichPageWithDetails(Page<Product> products) {
+        List<ProductDTO> content = enrichProductsWithDetails(products.getContent());
+        return new PageImpl<>(content, products.getPageable(), products.getTotalElements());
+    }
+
+    /**
+     * Enrich products with additional details in batch (keeps the given order)
+     *
+     * <p>Category, price and inventory are each resolved with one lookup for the
+     * whole list instead of one round trip per product.</p>
+     */
+    private List<ProductDTO> enrichProductsWithDetails(List<Product> products) {
+        if (products.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> productIds = products.stream()
+            .map(Product::getId)
+            .toList();
+        Set<String> categoryIds = products.stream()
+            .map(Product::getCategoryId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+
+        // Get category, price and inventory information
+        Map<String, CategoryDTO> categories = categoryService.findByIds(categoryIds);
+        Map<String, EffectivePrice> prices = priceEngine.findByProductIds(productIds);
+        // The ledger is authoritative for the products it manages
+        Map<String, Inventory> inventories = inventoryRepository.findByProductIdIn(productIds).stream()
+            .map(inventory -> reservationLedger.manages(inventory.getProductId())
+                ? reservationLedger.withLedgerQuantities(inventory) : inventory)
+            .collect(Collectors.toMap(Inventory::getProductId, Function.identity(), (first, second) -> first));
+
+        // Sources of the cached views built from these products
+        for (Product product : products) {
+            CacheDependencies.record(CacheDependencies.product(product.getId()));
+            CacheDependencies.record(CacheDependencies.price(product.getId()));
+            CacheDependencies.record(CacheDependencies.inventory(product.getId()));
+            if (product.getCategoryId() != null) {
+                CacheDependencies.record(CacheDependencies.category(product.getCategoryId()));
             }
         }
 
-        // Get price information (using Java 21 Optional improvements)
-        ProductDTO.PriceInfoDTO priceInfo = priceRepository.findByProductIdAndIsActiveTrue(product.getId())
-            .map(p -> new ProductDTO.PriceInfoDTO(
-                p.getRegularPrice(),
-                p.getSalePrice(),
-                p.getCurrentPrice(),
-                p.getCurrencyCode(),
-                p.isOnSale(),
-                p.getSaleStartDate(),
-                p.getSaleEndDate()
-            ))
-            .orElse(null);
-
-        // Get inventory information (using Java 21 Optional improvements)
-        ProductDTO.InventoryInfoDTO inventoryInfo = inventoryRepository.findByProductId(product.getId())
-            .map(inv -> new ProductDTO.InventoryInfoDTO(
-                inv.getStatus().name(),
-                inv.getQuantity(),
-                inv.getAvailableQuantity(),
-                inv.getLocationCode()
-            ))
-            .orElse(null);
+        return products.stream()
+            .map(product -> toProductDTO(product,
+                categories.get(product.getCategoryId()),
+                prices.get(product.getId()),
+                inventories.get(product.getId())))
+            .toList();
+    }
+
+    /**
+     * Assemble ProductDTO from resolved details
+     */
+    private ProductDTO toProductDTO(Product product, CategoryDTO category, EffectivePrice price, Inventory inventory) {
+        if (category == null && product.getCategoryId() != null) {
+            log.warn("Category not found - ID: {}", product.getCategoryId());
+        }
+
+        ProductDTO.PriceInfoDTO priceInfo = price == null ? null : new ProductDTO.PriceInfoDTO(
+            price.regularPrice(),
+            price.salePrice(),
+            price.currentPrice(),
+            price.currencyCode(),
+            price.onSale(),
+            price.saleStartDate(),
+            price.saleEndDate()
+        );
+
+        ProductDTO.InventoryInfoDTO inventoryInfo = inventory == null ? null : new ProductDTO.InventoryInfoDTO(
+            inventory.getStatus().name(),
+            inventory.getQuantity(),
+            inventory.getAvailableQuantity(),
+            inventory.getLocationCode()
+        );
 
         // Create ProductDTO (using record constructor)
         return new ProductDTO(
@@ -206,8 +471,6 @@ public class ProductService {
     public List<ProductDTO> findByIds(List<String> ids) {
         log.debug("Get multiple products - IDs: {}", ids);
         List<Product> products = productRepository.findByIdInAndActiveTrue(ids);
-        return products.stream()
-            .map(this::enrichProductWithDetails)
-            .toList();
+        return enrichProductsWithDetails(products);
     }
 }
@@ -0,0 +1,93 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.cache.CacheDependencies;
+import com.skishop.inventory.cache.TwoTierCacheManager;
+import com.skishop.inventory.pricing.PriceEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evicts cached product views (details, listings, search pages) built from changed products,
+ * categories, prices or inventory, in whichever cache they are stored
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewInvalidator {
+
+    private final TwoTierCacheManager cacheManager;
+
+    /**
+     * Inventory tags of stock changes not evicted yet
+     */
+    private final Set<String> pendingInventoryTags = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Evict the views depending on any of the tags once the current transaction commits (immediately without one)
+     */
+    public void invalidate(Collection<String> tags) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(tags);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(tags);
+            }
+        });
+    }
+
+    /**
+     * Committed stock change (covers every inventory mutation, including ledger-managed products)
+     *
+     * <p>Only queued: a hot product changes many times a second, and its views are evicted once per
+     * interval by {@link #evictStockChanges()} instead of on every request thread.</p>
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChange(EventPublisherService.StockChange change) {
+        pendingInventoryTags.add(CacheDependencies.inventory(change.productId()));
+    }
+
+    /**
+     * Evict the views of products whose stock changed since the last run
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.cache.stock-eviction-interval-ms:100}")
+    public void evictStockChanges() {
+        if (pendingInventoryTags.isEmpty()) {
+            return;
+        }
+        // A tag queued after the copy is either left for the next run or evicted below, after it was queued
+        List<String> tags = new ArrayList<>(pendingInventoryTags);
+        pendingInventoryTags.removeAll(tags);
+        evict(tags);
+    }
+
+    /**
+     * Price change (published after commit, and when a sale starts or ends)
+     */
+    @EventListener
+    public void onPriceChanged(PriceEngine.PriceChanged event) {
+        evict(List.of(CacheDependencies.price(event.productId())));
+    }
+
+    private void evict(Collection<String> tags) {
+        try {
+            cacheManager.evictTags(tags);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict product views - Tags: {}", tags, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.exception.ResourceNotFoundException;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+
+/**
+ * Reservation Batch Writer
+ * Commits a batch of coalesced reservations for one product in a single transaction
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationBatchWriter {
+
+    private static final int MAX_ALLOCATION_ATTEMPTS = 3;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStatusService inventoryStatusService;
+    private final EventPublisherService eventPublisherService;
+
+    /**
+     * Reserve a batch of requested quantities for a product
+     *
+     * @param productId Product ID
+     * @param quantities Requested quantities in arrival order
+     * @return Granted flag for each request, in the same order
+     */
+    @Transactional
+    public boolean[] reserve(String productId, int[] quantities) {
+        boolean[] granted = new boolean[quantities.length];
+        int total = Arrays.stream(quantities).sum();
+        int grantedTotal = 0;
+
+        // Whole batch fits: a single conditional UPDATE grants every request
+        if (inventoryRepository.increaseReservedQuantity(productId, total) > 0) {
+            Arrays.fill(granted, true);
+            grantedTotal = total;
+        } else {
+            // Split the available quantity in arrival order and reject requests that don't fit
+            for (int attempt = 0; attempt < MAX_ALLOCATION_ATTEMPTS; attempt++) {
+                Integer availableQuantity = inventoryRepository.getAvailableQuantityByProductId(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Inventory information not found: " + productId));
+                int allocated = allocate(quantities, availableQuantity, granted);
+                if (allocated == 0 || inventoryRepository.increaseReservedQuantity(productId, allocated) > 0) {
+                    grantedTotal = allocated;
+                    break;
+                }
+                // Available quantity changed concurrently, allocate again
+                Arrays.fill(granted, false);
+            }
+        }
+
+        if (grantedTotal > 0) {
+            inventoryStatusService.refreshStatus(productId);
+            eventPublisherService.publishStockReservedEvent(productId, grantedTotal);
+        }
+
+        log.debug("Reservation batch committed - Product ID: {}, Requests: {}, Granted quantity: {}/{}",
+            productId, quantities.length, grantedTotal, total);
+        return granted;
+    }
+
+    /**
+     * Release a granted quantity whose requests stopped waiting before the batch committed
+     */
+    @Transactional
+    public void release(String productId, int quantity) {
+        if (inventoryRepository.decreaseReservedQuantity(productId, quantity) == 0) {
+            throw new ResourceNotFoundException("Failed to release reserved stock");
+        }
+        inventoryStatusService.refreshStatus(productId);
+        eventPublisherService.publishStockReleasedEvent(productId, quantity);
+    }
+
+    /**
+     * Grant requests in arrival order while they fit into the available quantity
+     */
+    private int allocate(int[] quantities, int availableQuantity, boolean[] granted) {
+        int remaining = availableQuantity;
+        int allocated = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            if (quantities[i] <= remaining) {
+                granted[i] = true;
+                remaining -= quantities[i];
+                allocated += quantities[i];
+            }
+        }
+        return allocated;
+    }
+}
@@ -0,0 +1,112 @@
+package com.skishop.inventory.service;
+
+import com.skishop.inventory.entity.jpa.ReservationHold;
+import com.skishop.inventory.repository.jpa.ReservationHoldRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservation hold service
+ * (releases holds whose time to live has passed and settles holds per order)
+ */
+@Service
+@Slf4j
+@Timed(value = "inventory.service", percentiles = {0.5, 0.99})
+public class ReservationHoldService {
+
+    private static final List<ReservationHold.HoldStatus> OPEN_STATUSES =
+        List.of(ReservationHold.HoldStatus.ACTIVE, ReservationHold.HoldStatus.CONFIRMED);
+
+    private final ReservationHoldRepository reservationHoldRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final int sweepChunkSize;
+
+    public ReservationHoldService(ReservationHoldRepository reservationHoldRepository,
+                                  InventoryService inventoryService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.inventory.reservation.hold.sweep-chunk-size:500}") int sweepChunkSize) {
+        this.reservationHoldRepository = reservationHoldRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sweepChunkSize = sweepChunkSize;
+    }
+
+    /**
+     * Release expired holds, one chunk per transaction
+     * (rows locked by a sweeper on another node are skipped)
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.reservation.hold.sweep-interval-ms:5000}")
+    public void sweepExpiredHolds() {
+        int total = 0;
+        int released;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            released = transactionTemplate.execute(status -> releaseExpiredChunk(now));
+            total += released;
+        } while (released == sweepChunkSize);
+
+        if (total > 0) {
+            log.info("Expired holds released - Holds: {}", total);
+        }
+    }
+
+    /**
+     * Release all open holds of an order
+     */
+    @Transactional
+    public void releaseHolds(String orderId) {
+        List<ReservationHold> holds = reservationHoldRepository.findByOrderIdAndStatusIn(orderId, OPEN_STATUSES);
+        if (holds.isEmpty()) {
+            return;
+        }
+        inventoryService.releaseStockBatch(sumByProduct(holds));
+        reservationHoldRepository.updateStatusByIdIn(
+            holds.stream().map(ReservationHold::getId).toList(), ReservationHold.HoldStatus.RELEASED);
+        log.info("Holds released - Order ID: {}, Holds: {}", orderId, holds.size());
+    }
+
+    /**
+     * Confirm all active holds of an order (confirmed holds are not released by the sweeper)
+     */
+    @Transactional
+    public void confirmHolds(String orderId) {
+        List<ReservationHold> holds = reservationHoldRepository.findByOrderIdAndStatusIn(
+            orderId, List.of(ReservationHold.HoldStatus.ACTIVE));
+        if (holds.isEmpty()) {
+            return;
+        }
+        reservationHoldRepository.updateStatusByIdIn(
+            holds.stream().map(ReservationHold::getId).toList(), ReservationHold.HoldStatus.CONFIRMED);
+        log.info("Holds confirmed - Order ID: {}, Holds: {}", orderId, holds.size());
+    }
+
+    private int releaseExpiredChunk(LocalDateTime now) {
+        List<ReservationHold> expired = reservationHoldRepository.findExpiredForUpdate(now, sweepChunkSize);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        // One set-based release per chunk instead of one update per hold
+        inventoryService.releaseStockBatch(sumByProduct(expired));
+        reservationHoldRepository.updateStatusByIdIn(
+            expired.stream().map(ReservationHold::getId).toList(), ReservationHold.HoldStatus.EXPIRED);
+        return expired.size();
+    }
+
+    private Map<String, Integer> sumByProduct(List<ReservationHold> holds) {
+        Map<String, Integer> quantities = new TreeMap<>();
+        holds.forEach(hold -> quantities.merge(hold.getProductId(), hold.getQuantity(), Integer::sum));
+        return quantities;
+    }
+}
@@ -0,0 +1,10 @@
+-- 在庫台帳（インメモリ予約台帳）のチェックポイント
+-- Postgres に反映済みのジャーナル最終シーケンス番号を保持する
+
+CREATE TABLE inventory_ledger_checkpoint (
+    id INTEGER PRIMARY KEY,
+    last_sequence BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO inventory_ledger_checkpoint (id, last_sequence) VALUES (1, 0);
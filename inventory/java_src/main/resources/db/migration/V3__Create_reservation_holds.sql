@@ -0,0 +1,20 @@
+-- 予約ホールド（有効期限付きの在庫予約）
+
+CREATE TABLE reservation_holds (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    order_id VARCHAR(255) NOT NULL,
+    product_id VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'ACTIVE',
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- インデックス作成
+CREATE INDEX idx_reservation_holds_order_id ON reservation_holds (order_id);
+-- 期限切れスキャン用（有効なホールドのみを対象とした部分インデックス）
+CREATE INDEX idx_reservation_holds_active_expires_at ON reservation_holds (expires_at) WHERE status = 'ACTIVE';
+
+CREATE TRIGGER update_reservation_holds_updated_at BEFORE UPDATE ON reservation_holds
+    FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
@@ -0,0 +1,18 @@
+-- イベントアウトボックス
+-- 在庫変更と同じトランザクションでイベントを記録し、リレーが Kafka へ配信後に削除する
+
+CREATE TABLE event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    event_key VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- インデックス作成
+CREATE INDEX idx_event_outbox_next_attempt_at ON event_outbox (next_attempt_at, id);
+CREATE INDEX idx_event_outbox_event_key ON event_outbox (event_key, id);
@@ -0,0 +1,12 @@
+-- 在庫台帳のチェックポイントを台帳 ID ごとに保持する
+-- 台帳（ジャーナル）ごとに反映済みシーケンス番号を管理し、別の台帳の番号で復旧しないようにする
+-- 既存の行（id = 1）は台帳 ID 'default' として引き継ぐ
+
+ALTER TABLE inventory_ledger_checkpoint ADD COLUMN ledger_id VARCHAR(100);
+UPDATE inventory_ledger_checkpoint SET ledger_id = 'default' WHERE id = 1;
+DELETE FROM inventory_ledger_checkpoint WHERE ledger_id IS NULL;
+
+ALTER TABLE inventory_ledger_checkpoint DROP CONSTRAINT inventory_ledger_checkpoint_pkey;
+ALTER TABLE inventory_ledger_checkpoint DROP COLUMN id;
+ALTER TABLE inventory_ledger_checkpoint ALTER COLUMN ledger_id SET NOT NULL;
+ALTER TABLE inventory_ledger_checkpoint ADD PRIMARY KEY (ledger_id);
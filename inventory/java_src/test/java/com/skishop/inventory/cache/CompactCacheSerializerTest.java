@@ -0,0 +1,112 @@
+package com.skishop.inventory.cache;
+
+import com.skishop.inventory.config.CacheConfig;
+import com.skishop.inventory.dto.CategoryDTO;
+import com.skishop.inventory.dto.ProductDTO;
+import com.skishop.inventory.dto.ProductImageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCacheSerializerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 7, 4, 10, 15, 30, 123_000_000);
+
+    private final RedisSerializer<Object> compact = CacheConfig.cacheValueSerializer("compact", 0);
+    private final RedisSerializer<Object> compressed = CacheConfig.cacheValueSerializer("compact", 64);
+    private final RedisSerializer<Object> json = CacheConfig.cacheValueSerializer("json", 0);
+
+    @Test
+    void productRoundTrip() {
+        ProductDTO product = product(1);
+
+        byte[] bytes = compact.serialize(product);
+
+        assertThat(bytes[0]).isEqualTo(CompactCacheSerializer.MARKER);
+        assertThat(bytes[1]).isEqualTo(CompactCacheSerializer.FORMAT_VERSION);
+        assertThat(compact.deserialize(bytes)).isEqualTo(product);
+    }
+
+    @Test
+    void cachedPageRoundTripInBothFormats() {
+        Page<ProductDTO> page = new PageImpl<>(List.of(product(1), product(2)),
+            PageRequest.of(2, 2, Sort.by(Sort.Order.desc("name"))), 17);
+        CachedValue cached = new CachedValue(page, 12, 1_000_000L);
+
+        for (RedisSerializer<Object> serializer : List.of(compact, compressed, json)) {
+            CachedValue read = (CachedValue) serializer.deserialize(serializer.serialize(cached));
+
+            assertThat(read.computeMillis()).isEqualTo(12);
+            assertThat(read.expiresAt()).isEqualTo(1_000_000L);
+            Page<?> readPage = (Page<?>) read.value();
+            assertThat(readPage.getContent()).isEqualTo(page.getContent());
+            assertThat(readPage.getPageable()).isEqualTo(page.getPageable());
+            assertThat(readPage.getTotalElements()).isEqualTo(17);
+        }
+    }
+
+    @Test
+    void compressesLargeValues() {
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(product(i));
+        }
+
+        byte[] plain = compact.serialize(products);
+        byte[] bytes = compressed.serialize(products);
+
+        assertThat(bytes[2] & 1).isEqualTo(1);
+        assertThat(bytes.length).isLessThan(plain.length);
+        assertThat(compressed.deserialize(bytes)).isEqualTo(products);
+    }
+
+    @Test
+    void readsEntriesWrittenAsJson() {
+        ProductDTO product = product(1);
+
+        byte[] bytes = json.serialize(product);
+
+        assertThat(bytes[0]).isEqualTo((byte) '{');
+        assertThat(compact.deserialize(bytes)).isEqualTo(product);
+    }
+
+    @Test
+    void unknownFormatVersionIsAMiss() {
+        byte[] bytes = compact.serialize(product(1));
+        bytes[1] = CompactCacheSerializer.FORMAT_VERSION + 1;
+
+        assertThat(compact.deserialize(bytes)).isNull();
+    }
+
+    private static ProductDTO product(int i) {
+        CategoryDTO parent = new CategoryDTO("C0", "Ski", null, null, null, List.of(), 0, "/C0", true, NOW, NOW, 10L);
+        CategoryDTO category = new CategoryDTO("C1", "Alpine", "Alpine skis", "C0", parent, List.of(), 1, "/C0/C1",
+            true, NOW, NOW, null);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("length", 150 + i);
+        attributes.put("color", "blue");
+        attributes.put("waterproof", true);
+        return new ProductDTO(
+            "P" + i, "SKU-" + i, "Alpine Ski " + i, "All-mountain ski", "Brand",
+            attributes, List.of("ski", "alpine"), category,
+            new ProductDTO.PriceInfoDTO(new BigDecimal("59800.00"), new BigDecimal("49800.00"),
+                new BigDecimal("49800.00"), "JPY", true, NOW.minusDays(1), null),
+            new ProductDTO.InventoryInfoDTO("IN_STOCK", 12, 10, "MAIN"),
+            List.of(new ProductImageDTO(UUID.nameUUIDFromBytes(new byte[] {(byte) i}), "P" + i,
+                "https://example.com/" + i + ".jpg", null, "MAIN", 0, "Ski", NOW, NOW)),
+            "https://example.com/" + i + ".jpg", true, NOW, NOW);
+    }
+}
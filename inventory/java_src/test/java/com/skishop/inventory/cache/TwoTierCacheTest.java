@@ -0,0 +1,124 @@
+package com.skishop.inventory.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TwoTierCacheTest {
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("products");
+
+    @Test
+    void earlyRefreshCallsTheMethodAgain() {
+        // Every hit is close enough to expiry to refresh; refreshes run inline
+        TwoTierCache cache = cache(1e12);
+        AtomicInteger callerLoads = new AtomicInteger();
+        AtomicInteger refreshLoads = new AtomicInteger();
+        Callable<String> callerLoader = () -> {
+            callerLoads.incrementAndGet();
+            Thread.sleep(2);
+            return "v" + callerLoads.get();
+        };
+        Runnable refresher = () -> cache.withRefresher(null).get("P1", () -> {
+            refreshLoads.incrementAndGet();
+            return "refreshed";
+        });
+
+        assertThat(cache.withRefresher(refresher).get("P1", callerLoader)).isEqualTo("v1");
+        assertThat(cache.withRefresher(refresher).get("P1", callerLoader)).isEqualTo("v1");
+
+        assertThat(callerLoads).hasValue(1);
+        assertThat(refreshLoads).hasValue(1);
+        assertThat(cache.get("P1").get()).isEqualTo("refreshed");
+    }
+
+    @Test
+    void plainLoadsAreNotRefreshedEarly() {
+        TwoTierCache cache = cache(1e12);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            Thread.sleep(2);
+            return "v" + loads.incrementAndGet();
+        };
+
+        cache.get("P1", loader);
+        cache.get("P1", loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void entryIsEvictedWhenATagWasTakenWhileLoading() {
+        CacheTagIndex tagIndex = mock(CacheTagIndex.class);
+        when(tagIndex.sequence()).thenReturn(7L);
+        when(tagIndex.register(eq("products"), eq("P1"), eq(Set.of(CacheDependencies.product("P1"))), any(), eq(7L))).thenReturn(true);
+        TwoTierCache cache = cache(0, tagIndex);
+
+        Object value = cache.get("P1", () -> {
+            CacheDependencies.record(CacheDependencies.product("P1"));
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.get("P1")).isNull();
+        assertThat(remote.get("P1")).isNull();
+    }
+
+    @Test
+    void entryIsKeptWhenNoTagWasTaken() {
+        CacheTagIndex tagIndex = mock(CacheTagIndex.class);
+        when(tagIndex.sequence()).thenReturn(7L);
+        TwoTierCache cache = cache(0, tagIndex);
+
+        cache.get("P1", () -> {
+            CacheDependencies.record(CacheDependencies.product("P1"));
+            return "fresh";
+        });
+
+        assertThat(cache.get("P1").get()).isEqualTo("fresh");
+        verify(tagIndex).register("products", "P1", Set.of(CacheDependencies.product("P1")), Duration.ofMinutes(5), 7L);
+    }
+
+    @Test
+    void evictionDuringRemoteReadIsNotUndoneByTheLocalCopy() {
+        remote.put("P1", new CachedValue("stale", 0, Long.MAX_VALUE));
+        AtomicReference<TwoTierCache> cache = new AtomicReference<>();
+        // The eviction broadcast arrives after Redis returned the value, before it is copied into the local tier
+        ConcurrentMapCache racingRemote = new ConcurrentMapCache("products") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = remote.get(key);
+                remote.evict(key);
+                cache.get().evictLocal(String.valueOf(key));
+                return wrapper;
+            }
+        };
+        cache.set(new TwoTierCache("products", racingRemote, 1000, Duration.ofMinutes(1), (name, key) -> { },
+            new SimpleMeterRegistry(), Duration.ofMinutes(5), 0, null, Runnable::run, null));
+
+        assertThat(cache.get().get("P1").get()).isEqualTo("stale");
+        assertThat(((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.get().getNativeCache()).estimatedSize()).isZero();
+    }
+
+    private TwoTierCache cache(double earlyRefreshBeta) {
+        return cache(earlyRefreshBeta, null);
+    }
+
+    private TwoTierCache cache(double earlyRefreshBeta, CacheTagIndex tagIndex) {
+        return new TwoTierCache("products", remote, 1000, Duration.ofMinutes(1), (name, key) -> { },
+            new SimpleMeterRegistry(), Duration.ofMinutes(5), earlyRefreshBeta, null, Runnable::run, tagIndex);
+    }
+}
@@ -0,0 +1,148 @@
+package com.skishop.inventory.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysAppendedRecordsAcrossSegments() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, true)) {
+            journal.reset(1);
+            journal.append("P1", 0, 3);
+            journal.awaitDurable(journal.append("P2", 5, 0).sequence());
+            journal.drain();
+            journal.awaitDurable(journal.append("P1", -1, -1).sequence());
+        }
+
+        List<LedgerMutation> replayed = new LedgerJournal(directory, true).readAll();
+
+        assertThat(replayed).containsExactly(
+            new LedgerMutation(1, "P1", 0, 3),
+            new LedgerMutation(2, "P2", 5, 0),
+            new LedgerMutation(3, "P1", -1, -1));
+    }
+
+    @Test
+    void ignoresTornRecordAtTheTail() throws IOException {
+        Path segment = writeSegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        assertThat(new LedgerJournal(directory, false).readAll())
+            .extracting(LedgerMutation::sequence)
+            .containsExactly(1L);
+    }
+
+    @Test
+    void treatsImplausibleLengthAsEndOfLog() throws IOException {
+        Path segment = writeSegment();
+        long secondRecord = Files.size(segment) / 2;
+        for (int length : List.of(Integer.MAX_VALUE, -1, 0)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(4).putInt(0, length), secondRecord);
+            }
+
+            assertThat(new LedgerJournal(directory, false).readAll())
+                .extracting(LedgerMutation::sequence)
+                .containsExactly(1L);
+        }
+    }
+
+    @Test
+    void ignoresRecordWithBadChecksum() throws IOException {
+        Path segment = writeSegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), channel.size() - 1);
+        }
+
+        assertThat(new LedgerJournal(directory, false).readAll())
+            .extracting(LedgerMutation::sequence)
+            .containsExactly(1L);
+    }
+
+    @Test
+    void resetStartsAfterTheGivenSequence() throws IOException {
+        writeSegment();
+
+        try (LedgerJournal journal = new LedgerJournal(directory, false)) {
+            journal.reset(10);
+            journal.append("P3", 1, 0);
+        }
+
+        assertThat(new LedgerJournal(directory, false).readAll())
+            .containsExactly(new LedgerMutation(10, "P3", 1, 0));
+    }
+
+    @Test
+    void concurrentAppendsAreAllDurable() throws Exception {
+        int threads = 8;
+        int appendsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (LedgerJournal journal = new LedgerJournal(directory, true)) {
+            journal.reset(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String productId = "P" + t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < appendsPerThread; i++) {
+                        journal.awaitDurable(journal.append(productId, 0, 1).sequence());
+                        if (i % 50 == 0) {
+                            journal.drain();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(new LedgerJournal(directory, false).readAll())
+            .extracting(LedgerMutation::sequence)
+            .containsExactlyElementsOf(sequences(threads * appendsPerThread));
+    }
+
+    /**
+     * One segment with two records of the same size
+     */
+    private Path writeSegment() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, false)) {
+            journal.reset(1);
+            journal.append("P1", 0, 2);
+            journal.append("P2", 0, 4);
+        }
+        try (var files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+
+    private static List<Long> sequences(int count) {
+        List<Long> sequences = new ArrayList<>();
+        for (long sequence = 1; sequence <= count; sequence++) {
+            sequences.add(sequence);
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,205 @@
+package com.skishop.inventory.ledger;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.exception.InsufficientStockException;
+import com.skishop.inventory.metrics.HotProductTracker;
+import com.skishop.inventory.repository.jdbc.InventoryBulkRepository;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+import com.skishop.inventory.repository.jpa.ReservationHoldRepository;
+import com.skishop.inventory.service.EventPublisherService;
+import com.skishop.inventory.service.GroupCommitReservationEngine;
+import com.skishop.inventory.service.InventoryService;
+import com.skishop.inventory.service.InventoryStatusService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Replays the ledger journal against PostgreSQL and compares the result with the direct database path
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = ReservationLedgerReplayTest.Config.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ReservationLedgerReplayTest {
+
+    private static final String LEDGER_PRODUCT = "LEDGER";
+    private static final String DIRECT_PRODUCT = "DIRECT";
+
+    private static final List<BiConsumer<InventoryService, String>> FLUSHED = List.of(
+        (service, productId) -> service.reserveStock(productId, 5, null, null),
+        (service, productId) -> service.reserveStock(productId, 8, null, null),
+        (service, productId) -> service.releaseStock(productId, 3, null));
+    private static final List<BiConsumer<InventoryService, String>> JOURNALED = List.of(
+        (service, productId) -> service.stockIn(productId, 4),
+        (service, productId) -> service.stockOut(productId, 6, null),
+        (service, productId) -> service.reserveStock(productId, 10, null, null));
+    private static final BiConsumer<InventoryService, String> REJECTED =
+        (service, productId) -> service.reserveStock(productId, 5, null, null);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReservationHoldRepository reservationHoldRepository;
+
+    @Autowired
+    private InventoryStatusService inventoryStatusService;
+
+    @Autowired
+    private InventoryBulkRepository inventoryBulkRepository;
+
+    @Autowired
+    private LedgerWriteBehindRepository writeBehindRepository;
+
+    @Autowired
+    private LedgerLease lease;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void replayedLedgerMatchesDirectUpdates() throws IOException {
+        seed(LEDGER_PRODUCT);
+        seed(DIRECT_PRODUCT);
+
+        ReservationLedger ledger = ledger();
+        ledger.recover();
+        InventoryService inventoryService = inventoryService(ledger);
+        FLUSHED.forEach(operation -> run(inventoryService, LEDGER_PRODUCT, operation));
+        // The node stops after the flush committed but before it deleted the flushed segment
+        Map<Path, byte[]> flushedSegments = readJournal();
+        ledger.flush();
+        for (Map.Entry<Path, byte[]> segment : flushedSegments.entrySet()) {
+            Files.write(segment.getKey(), segment.getValue());
+        }
+        // Only in the journal when the node stops
+        JOURNALED.forEach(operation -> run(inventoryService, LEDGER_PRODUCT, operation));
+        assertThatThrownBy(() -> run(inventoryService, LEDGER_PRODUCT, REJECTED))
+            .isInstanceOf(InsufficientStockException.class);
+
+        ReservationLedger restarted = ledger();
+        restarted.recover();
+        restarted.flush();
+
+        // DIRECT_PRODUCT is not managed by the ledger
+        InventoryService directService = inventoryService(restarted);
+        FLUSHED.forEach(operation -> run(directService, DIRECT_PRODUCT, operation));
+        JOURNALED.forEach(operation -> run(directService, DIRECT_PRODUCT, operation));
+        assertThatThrownBy(() -> run(directService, DIRECT_PRODUCT, REJECTED))
+            .isInstanceOf(InsufficientStockException.class);
+
+        Map<String, Object> direct = row(DIRECT_PRODUCT);
+        assertThat(row(LEDGER_PRODUCT)).isEqualTo(direct);
+        assertThat(direct).containsEntry("quantity", 18).containsEntry("reserved_quantity", 14)
+            .containsEntry("status", "LOW_STOCK");
+        assertThat(restarted.getAvailableQuantity(LEDGER_PRODUCT)).isEqualTo(4);
+    }
+
+    private ReservationLedger ledger() {
+        return new ReservationLedger(inventoryRepository, writeBehindRepository, lease, mock(EventPublisherService.class),
+            true, "default", Set.of(LEDGER_PRODUCT), directory.toString(), true);
+    }
+
+    private InventoryService inventoryService(ReservationLedger ledger) {
+        InventoryService inventoryService = new InventoryService(inventoryRepository, mock(EventPublisherService.class),
+            inventoryStatusService, mock(GroupCommitReservationEngine.class), ledger, inventoryBulkRepository,
+            reservationHoldRepository, mock(CacheManager.class), mock(HotProductTracker.class));
+        ReflectionTestUtils.setField(inventoryService, "lowStockThreshold", 5);
+        return inventoryService;
+    }
+
+    /**
+     * Call the service in its own transaction, as its proxy would
+     */
+    private void run(InventoryService inventoryService, String productId, BiConsumer<InventoryService, String> operation) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> operation.accept(inventoryService, productId));
+    }
+
+    private Map<Path, byte[]> readJournal() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            Map<Path, byte[]> segments = new HashMap<>();
+            for (Path file : files.toList()) {
+                segments.put(file, Files.readAllBytes(file));
+            }
+            return segments;
+        }
+    }
+
+    private void seed(String productId) {
+        LocalDateTime now = LocalDateTime.now();
+        inventoryRepository.save(Inventory.builder()
+            .productId(productId)
+            .quantity(20)
+            .reservedQuantity(0)
+            .locationCode("MAIN")
+            .status(Inventory.InventoryStatus.IN_STOCK)
+            .createdAt(now)
+            .updatedAt(now)
+            .build());
+    }
+
+    private Map<String, Object> row(String productId) {
+        return jdbcTemplate.queryForMap(
+            "SELECT quantity, reserved_quantity, status FROM inventory WHERE product_id = ?", productId);
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = InventoryRepository.class)
+    @EntityScan(basePackageClasses = Inventory.class)
+    @Import({LedgerWriteBehindRepository.class, LedgerLease.class, InventoryStatusService.class,
+        InventoryBulkRepository.class})
+    static class Config {
+
+        @Bean
+        EventPublisherService eventPublisherService() {
+            return mock(EventPublisherService.class);
+        }
+    }
+}
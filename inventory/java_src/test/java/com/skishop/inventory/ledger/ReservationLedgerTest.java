@@ -0,0 +1,148 @@
+package com.skishop.inventory.ledger;
+
+import com.skishop.inventory.entity.jpa.Inventory;
+import com.skishop.inventory.exception.InsufficientStockException;
+import com.skishop.inventory.repository.jpa.InventoryRepository;
+import com.skishop.inventory.service.EventPublisherService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReservationLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    private final InventoryRepository inventoryRepository = mock(InventoryRepository.class);
+    private final LedgerWriteBehindRepository writeBehindRepository = mock(LedgerWriteBehindRepository.class);
+    private final LedgerLease lease = mock(LedgerLease.class);
+
+    @BeforeEach
+    void setUp() {
+        when(lease.isHeld()).thenReturn(true);
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(List.of(
+            Inventory.builder().productId("P1").quantity(10).reservedQuantity(0).locationCode("MAIN").build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void replaysUnflushedMutationsOnRecovery() {
+        ReservationLedger ledger = ledger();
+        ledger.recover();
+        ledger.reserve("P1", 3);
+        ledger.stockIn("P1", 5);
+        ledger.stockOut("P1", 1);
+        // Stopped without flushing
+
+        ReservationLedger restarted = ledger();
+        restarted.recover();
+
+        verify(writeBehindRepository).apply(eq("default"),
+            eq(List.of(new LedgerWriteBehindRepository.ProductDelta("P1", 4, 2))), eq(3L));
+    }
+
+    @Test
+    void skipsMutationsAlreadyFlushed() {
+        ReservationLedger ledger = ledger();
+        ledger.recover();
+        ledger.reserve("P1", 3);
+        when(writeBehindRepository.findLastSequence("default")).thenReturn(1L);
+
+        ReservationLedger restarted = ledger();
+        restarted.recover();
+
+        verify(writeBehindRepository, never()).apply(any(), any(), anyLong());
+    }
+
+    @Test
+    void reversesMutationsOfRolledBackTransaction() {
+        ReservationLedger ledger = ledger();
+        ledger.recover();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        ledger.reserve("P1", 4);
+        assertThatThrownBy(() -> ledger.reserve("P1", 7)).isInstanceOf(InsufficientStockException.class);
+        ledger.stockIn("P1", 2);
+        assertThat(ledger.getAvailableQuantity("P1")).isEqualTo(8);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertThat(ledger.getQuantity("P1")).isEqualTo(10);
+        assertThat(ledger.getReservedQuantity("P1")).isZero();
+        // The compensation is journaled like any other mutation and nets out on replay
+        ledger().recover();
+        verify(writeBehindRepository).apply(eq("default"),
+            eq(List.of(new LedgerWriteBehindRepository.ProductDelta("P1", 0, 0))), eq(4L));
+    }
+
+    @Test
+    void keepsMutationsOfCommittedTransaction() {
+        ReservationLedger ledger = ledger();
+        ledger.recover();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        ledger.reserve("P1", 4);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertThat(ledger.getReservedQuantity("P1")).isEqualTo(4);
+    }
+
+    @Test
+    void refusesToStartWhenAnotherNodeHoldsTheLease() {
+        doThrow(new IllegalStateException("held")).when(lease).acquire("default", Set.of("P1"));
+
+        assertThatThrownBy(() -> ledger().recover()).isInstanceOf(IllegalStateException.class);
+        verify(inventoryRepository, never()).findByProductIdIn(any());
+    }
+
+    @Test
+    void rejectsMutationsAfterLosingTheLease() {
+        ReservationLedger ledger = ledger();
+        ledger.recover();
+        ledger.reserve("P1", 3);
+        when(lease.isHeld()).thenReturn(false);
+
+        ledger.flush();
+
+        assertThatThrownBy(() -> ledger.reserve("P1", 1)).isInstanceOf(IllegalStateException.class);
+        // Mutations accepted before the loss still reach Postgres
+        verify(writeBehindRepository).apply(eq("default"),
+            eq(List.of(new LedgerWriteBehindRepository.ProductDelta("P1", 0, 3))), eq(1L));
+    }
+
+    private ReservationLedger ledger() {
+        return new ReservationLedger(inventoryRepository, writeBehindRepository, lease,
+            mock(EventPublisherService.class), true, "default", Set.of("P1"), directory.toString(), true);
+    }
+}
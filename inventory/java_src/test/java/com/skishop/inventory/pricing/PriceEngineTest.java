@@ -0,0 +1,36 @@
+package com.skishop.inventory.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceEngineTest {
+
+    @Test
+    void convertsToMinorUnitsOfTheCurrency() {
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("49800"), "JPY", RoundingMode.FLOOR)).isEqualTo(49_800L);
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("19.991"), "USD", RoundingMode.CEILING)).isEqualTo(2_000L);
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("19.999"), "USD", RoundingMode.FLOOR)).isEqualTo(1_999L);
+    }
+
+    @Test
+    void saturatesOutOfRangeBounds() {
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("1E+30"), "JPY", RoundingMode.FLOOR)).isEqualTo(Long.MAX_VALUE);
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("-1E+30"), "JPY", RoundingMode.CEILING)).isEqualTo(Long.MIN_VALUE);
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("1E+17"), "USD", RoundingMode.FLOOR)).isEqualTo(Long.MAX_VALUE);
+        assertThat(PriceEngine.toMinorUnits(new BigDecimal("1E+999999999"), "USD", RoundingMode.FLOOR)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void roundsTinyAmountsWithoutRescalingTheExponent() {
+        BigDecimal tiny = new BigDecimal("1E-999999999");
+
+        assertThat(PriceEngine.toMinorUnits(tiny, "USD", RoundingMode.CEILING)).isEqualTo(1L);
+        assertThat(PriceEngine.toMinorUnits(tiny, "USD", RoundingMode.FLOOR)).isZero();
+        assertThat(PriceEngine.toMinorUnits(tiny.negate(), "USD", RoundingMode.FLOOR)).isEqualTo(-1L);
+        assertThat(PriceEngine.toMinorUnits(tiny.negate(), "JPY", RoundingMode.CEILING)).isZero();
+    }
+}